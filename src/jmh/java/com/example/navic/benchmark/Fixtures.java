@@ -0,0 +1,35 @@
+package com.example.navic.benchmark;
+
+import com.example.navic.models.SOSAlert;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.Instant;
+
+/**
+ * Deterministic sample data shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static SOSAlert alert(String id, int responders) {
+        SOSAlert alert = new SOSAlert();
+        alert.setId(id);
+        alert.setAlertCode("SOS-2026-" + id);
+        alert.setSenderId("sender-" + id);
+        alert.setSenderName("Asha Kulkarni");
+        alert.setSenderPhone("+919812345678");
+        alert.setLatitude(19.0760);
+        alert.setLongitude(72.8777);
+        alert.setLocation(new GeoJsonPoint(72.8777, 19.0760));
+        alert.setAddress("Near Dadar station, Mumbai");
+        alert.setStatus("ALERTED");
+        alert.setEmergencyType("FLOOD");
+        alert.setDescription("Water rising on ground floor, two elderly residents");
+        alert.setCreatedAt(Instant.parse("2026-07-01T10:15:30Z"));
+        for (int i = 0; i < responders; i++) {
+            alert.addResponder(new SOSAlert.Responder("rescuer-" + i, "Rescuer " + i, "+9190000000" + i, i * 0.1));
+        }
+        return alert;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.navic.benchmark;
+
+import com.example.navic.services.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a bearer token into a user id.
+ * legacyParser: a parser built per call, as JwtService did before.
+ * coldCache: the shared parser with caching disabled, i.e. every call verifies the HMAC.
+ * warmCache: every token has been verified once already.
+ * generate: signing a fresh token, as login and registration do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "NavICEmergencyResponseSystemSecretKeyForJWT2024ISRO";
+    private static final int TOKENS = 1024;
+
+    private JwtService cached;
+    private JwtService uncached;
+    private SecretKey key;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtService(7, SECRET, 10_000);
+        uncached = new JwtService(7, SECRET, 0);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = cached.generate("user-" + i);
+            cached.validate(tokens[i]);
+        }
+    }
+
+    private String nextToken() {
+        next = (next + 1) & (TOKENS - 1);
+        return tokens[next];
+    }
+
+    @Benchmark
+    public String legacyParser() {
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(nextToken())
+                .getPayload()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String coldCache() {
+        return uncached.validate(nextToken());
+    }
+
+    @Benchmark
+    public String warmCache() {
+        return cached.validate(nextToken());
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generate("user-42");
+    }
+}
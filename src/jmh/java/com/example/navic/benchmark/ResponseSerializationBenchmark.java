@@ -0,0 +1,65 @@
+package com.example.navic.benchmark;
+
+import com.example.navic.dto.SOSResponse;
+import com.example.navic.models.SOSAlert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The list endpoints in SOSController (/my-alerts, /pending, /nearby,
+ * /my-rescues): map alerts to SOSResponse and write the {count, alerts}
+ * body with an ObjectMapper configured like the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int alerts;
+
+    private ObjectMapper objectMapper;
+    private List<SOSAlert> entities;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        entities = new ArrayList<>(alerts);
+        for (int i = 0; i < alerts; i++) {
+            entities.add(Fixtures.alert("alert-" + i, 5));
+        }
+    }
+
+    @Benchmark
+    public byte[] listResponse() throws JsonProcessingException {
+        List<SOSResponse> body = entities.stream().map(SOSResponse::fromEntity).toList();
+        return objectMapper.writeValueAsBytes(Map.of(
+                "count", body.size(),
+                "alerts", body
+        ));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.navic.benchmark;
+
+import com.example.navic.dto.SOSResponse;
+import com.example.navic.models.SOSAlert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-side work done on every SOS: building the alert, attaching
+ * responders and mapping it to the API response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SOSAlertBenchmark {
+    static final int RESPONDERS = 50;
+
+    private SOSAlert alert;
+    private SOSAlert.Responder[] responders;
+
+    @Setup
+    public void setUp() {
+        alert = Fixtures.alert("bench", 20);
+
+        responders = new SOSAlert.Responder[RESPONDERS];
+        for (int i = 0; i < RESPONDERS; i++) {
+            responders[i] = new SOSAlert.Responder("rescuer-" + i, "Rescuer " + i, "+9190000000" + i, i * 0.1);
+        }
+    }
+
+    @Benchmark
+    public SOSAlert generateAlertCode() {
+        SOSAlert fresh = new SOSAlert();
+        fresh.generateAlertCode();
+        return fresh;
+    }
+
+    @Benchmark
+    public SOSAlert addSenderLocation() {
+        alert.addSenderLocation(19.0760, 72.8777, 8.5, "GPS");
+        return alert;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESPONDERS)
+    public SOSAlert addResponder() {
+        SOSAlert fresh = new SOSAlert();
+        for (SOSAlert.Responder responder : responders) {
+            fresh.addResponder(responder);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public SOSResponse fromEntity() {
+        return SOSResponse.fromEntity(alert);
+    }
+}
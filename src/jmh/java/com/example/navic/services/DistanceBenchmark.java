@@ -0,0 +1,77 @@
+package com.example.navic.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distances from an alert to rescuers scattered within ~10 km of it.
+ * calculateDistance is the scalar haversine once called per rescuer from
+ * notifyNearbyRescuers (kept under its old name to compare with the
+ * baseline); the others are the GeoMath batch kernels over the same points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+    static final int RESCUERS = 1024;
+
+    private final double alertLat = 19.0760;
+    private final double alertLng = 72.8777;
+    private double[] lats;
+    private double[] lngs;
+    private double[] scratch;
+    private int[] hits;
+    private double[] distances;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        lats = new double[RESCUERS];
+        lngs = new double[RESCUERS];
+        for (int i = 0; i < RESCUERS; i++) {
+            lats[i] = alertLat + random.nextDouble(-0.09, 0.09);
+            lngs[i] = alertLng + random.nextDouble(-0.09, 0.09);
+        }
+        scratch = new double[RESCUERS];
+        hits = new int[RESCUERS];
+        distances = new double[RESCUERS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESCUERS)
+    public void calculateDistance(Blackhole blackhole) {
+        for (int i = 0; i < RESCUERS; i++) {
+            blackhole.consume(GeoMath.haversineKm(alertLat, alertLng, lats[i], lngs[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESCUERS)
+    public double[] haversineBatch() {
+        GeoMath.haversineKm(alertLat, alertLng, lats, lngs, RESCUERS, distances);
+        return distances;
+    }
+
+    // A 5 km dispatch ring: about a fifth of the points are inside it
+    @Benchmark
+    @OperationsPerInvocation(RESCUERS)
+    public int withinRadius() {
+        return GeoMath.withinRadius(alertLat, alertLng, 5.0, lats, lngs, RESCUERS, scratch, hits, distances);
+    }
+}
@@ -2,8 +2,10 @@ package com.example.navic;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class NavicApiApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(NavicApiApplication.class, args);
@@ -0,0 +1,112 @@
+package com.example.navic.config;
+
+import com.example.navic.models.SOSAlert;
+import com.example.navic.models.SOSLocationPoint;
+import com.example.navic.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the indexes declared on the models (@Indexed, @CompoundIndex).
+ * Spring Boot leaves auto index creation off, so without this nothing but
+ * _id is indexed. Each definition is ensured on its own so one conflict,
+ * e.g. a unique index over existing duplicates, does not hold back the rest.
+ */
+@Component
+public class MongoIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private static final List<Class<?>> ENTITIES = List.of(SOSAlert.class, User.class, SOSLocationPoint.class);
+
+    // Plain 2d indexes from the old @GeoSpatialIndexed fields ($nearSphere with $geometry needs 2dsphere),
+    // and sender_status, which only served the count that sender_active replaced
+    private static final Set<String> RETIRED = Set.of("location", "sender_status");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    private final boolean ensureOnStartup;
+
+    public MongoIndexInitializer(@Value("${navic.mongo.ensure-indexes:true}") boolean ensureOnStartup) {
+        this.ensureOnStartup = ensureOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureOnStartup() {
+        if (!ensureOnStartup) return;
+
+        Thread builder = new Thread(() -> {
+            try {
+                int ensured = ensureIndexes();
+                log.info("Ensured {} Mongo indexes", ensured);
+            } catch (Exception e) {
+                log.warn("Mongo index creation failed: {}", e.getMessage());
+            }
+        }, "mongo-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Ensure every declared index exists. Returns how many were ensured
+     * without error.
+     */
+    public int ensureIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        int ensured = 0;
+
+        for (Class<?> entity : ENTITIES) {
+            // Indexing a missing collection would create it as a regular one
+            if (AnnotatedElementUtils.hasAnnotation(entity, TimeSeries.class)
+                    && !mongoTemplate.collectionExists(entity)) {
+                try {
+                    mongoTemplate.createCollection(entity);
+                } catch (RuntimeException e) {
+                    log.debug("{} creation skipped: {}", entity.getSimpleName(), e.getMessage());
+                }
+            }
+
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            dropRetired(indexOps);
+
+            for (IndexDefinition index : resolver.resolveIndexFor(entity)) {
+                try {
+                    indexOps.ensureIndex(index);
+                    ensured++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not ensure index {} on {}: {}",
+                            index.getIndexKeys().toJson(), entity.getSimpleName(), e.getMessage());
+                }
+            }
+        }
+        return ensured;
+    }
+
+    private void dropRetired(IndexOperations indexOps) {
+        for (IndexInfo info : indexOps.getIndexInfo()) {
+            if (RETIRED.contains(info.getName())) {
+                indexOps.dropIndex(info.getName());
+                log.info("Dropped retired index {}", info.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.navic.config;
+
+import com.example.navic.models.SOSAlert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Idempotent data fixes run once per startup, off the startup thread.
+ */
+@Component
+public class MongoMigrations {
+    private static final Logger log = LoggerFactory.getLogger(MongoMigrations.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final boolean migrateOnStartup;
+
+    public MongoMigrations(@Value("${navic.mongo.migrate:true}") boolean migrateOnStartup) {
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!migrateOnStartup) return;
+
+        Thread migrator = new Thread(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                log.warn("Mongo migration failed: {}", e.getMessage());
+            }
+        }, "mongo-migrations");
+        migrator.setDaemon(true);
+        migrator.start();
+    }
+
+    public void migrate() {
+        backfillAlertVersions();
+    }
+
+    /**
+     * SOSAlert gained @Version. Spring Data treats an entity with a null
+     * version as new, so saving an alert read without one would try to
+     * insert it again.
+     */
+    long backfillAlertVersions() {
+        long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                SOSAlert.class).getModifiedCount();
+        if (updated > 0) log.info("Set version 0 on {} SOS alerts", updated);
+        return updated;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.navic.controllers;
+
+import com.example.navic.models.SOSAlert;
+import com.example.navic.services.MediaStore;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/sos")
+public class MediaController {
+
+    @Autowired
+    private MediaStore mediaStore;
+
+    @PostMapping(value = "/{alertId}/media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> upload(
+            @PathVariable String alertId,
+            @AuthenticationPrincipal String userId,
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
+        }
+
+        SOSAlert.MediaRef ref = mediaStore.upload(alertId, userId, file.getInputStream(),
+                file.getOriginalFilename(), file.getContentType(), file.getSize());
+        if (ref == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Not a party to this alert"));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("media", ref));
+    }
+
+    @GetMapping("/media/{mediaId}")
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable String mediaId,
+            @AuthenticationPrincipal String userId,
+            @RequestHeader HttpHeaders requestHeaders) throws IOException {
+
+        GridFSFile file = mediaStore.find(mediaId);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!mediaStore.canView(file, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        long total = file.getLength();
+        long start = 0;
+        long end = total - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+        // Players and resumable clients ask for one range at a time; anything else gets the whole file
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            try {
+                start = range.getRangeStart(total);
+                end = range.getRangeEnd(total);
+            } catch (IllegalArgumentException e) {
+                start = total;
+            }
+            if (start >= total || start > end) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + total)
+                        .build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentLength(end - start + 1);
+        // Files stored before types were checked may carry anything; never let the browser render those
+        String contentType = MediaStore.safeContentType(
+                file.getMetadata() != null ? file.getMetadata().getString("_contentType") : null);
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        if (contentType.equals(MediaType.APPLICATION_OCTET_STREAM_VALUE)) {
+            headers.setContentDisposition(ContentDisposition.attachment().build());
+        }
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + total);
+        }
+
+        InputStream content = mediaStore.open(file);
+        long skip = start;
+        long length = end - start + 1;
+        StreamingResponseBody body = out -> {
+            try (content) {
+                // GridFS seeks to the right chunk instead of reading the skipped bytes
+                content.skipNBytes(skip);
+                byte[] buffer = new byte[64 * 1024];
+                long remaining = length;
+                while (remaining > 0) {
+                    int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) break;
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        };
+        return new ResponseEntity<>(body, headers, status);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.navic.controllers;
+
+import com.example.navic.dto.SOSResponse;
+import com.example.navic.models.SOSLocationPoint;
+import com.example.navic.services.ReactiveSOSService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Read and tracking endpoints of SOSController for the reactive profile.
+ * Lists are streamed: NDJSON when the client asks for it, otherwise a
+ * plain JSON array written element by element.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/api/sos", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+public class ReactiveSOSController {
+
+    @Autowired
+    private ReactiveSOSService sosService;
+
+    @GetMapping("/my-alerts")
+    public Flux<SOSResponse> getMyAlerts(@AuthenticationPrincipal String userId) {
+        return sosService.getAlertsBySender(userId);
+    }
+
+    @GetMapping("/pending")
+    public Flux<SOSResponse> getPendingAlerts(@AuthenticationPrincipal String userId) {
+        return sosService.getPendingAlertsForUser(userId);
+    }
+
+    @GetMapping("/nearby")
+    public Flux<SOSResponse> getNearbyAlerts(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10") double radiusKm) {
+
+        return sosService.getNearbyActiveAlerts(latitude, longitude, radiusKm);
+    }
+
+    @GetMapping("/{alertId}/track")
+    public Flux<SOSLocationPoint> getTrack(
+            @PathVariable String alertId,
+            @RequestParam(required = false) String party,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+
+        return sosService.getTrail(
+                alertId,
+                party != null ? party.toUpperCase() : null,
+                from != null ? from : Instant.EPOCH,
+                to != null ? to : Instant.now()
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.navic.controllers;
+
+import com.example.navic.services.ReactiveUserService;
+import com.example.navic.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Location tracking and rescuer lookup from UserController for the reactive profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/auth")
+public class ReactiveUserController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReactiveUserService reactiveUserService;
+
+    @PutMapping("/location")
+    public ResponseEntity<?> updateLocation(
+            @AuthenticationPrincipal String userId,
+            @RequestParam double latitude,
+            @RequestParam double longitude) {
+
+        // Only touches the in-memory buffer and index, so it is safe on the event loop
+        userService.updateLocation(userId, latitude, longitude);
+        return ResponseEntity.accepted().body(Map.of("message", "Location update accepted"));
+    }
+
+    @GetMapping(value = "/nearby", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Map<String, Object>> findNearbyUsers(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(required = false) String excludeUserId) {
+
+        return reactiveUserService.streamNearbyRescuers(latitude, longitude, radiusKm, excludeUserId)
+                .map(u -> Map.of(
+                        "id", u.getId(),
+                        "fullName", u.getFullName() != null ? u.getFullName() : u.getUsername(),
+                        "phone", u.getPhone() != null ? u.getPhone() : "",
+                        "latitude", u.getLatitude(),
+                        "longitude", u.getLongitude(),
+                        "isAvailableForRescue", u.isAvailableForRescue()
+                ));
+    }
+}
@@ -3,15 +3,22 @@ package com.example.navic.controllers;
 import com.example.navic.dto.SOSRequest;
 import com.example.navic.dto.SOSResponse;
 import com.example.navic.models.SOSAlert;
+import com.example.navic.models.SOSLocationPoint;
+import com.example.navic.services.LocationTrailService;
+import com.example.navic.services.MediaStore;
 import com.example.navic.services.SOSService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/sos")
 public class SOSController {
@@ -19,10 +26,16 @@ public class SOSController {
     @Autowired
     private SOSService sosService;
 
+    @Autowired
+    private LocationTrailService locationTrailService;
+
+    @Autowired
+    private MediaStore mediaStore;
+
     @PostMapping("/create")
     public ResponseEntity<?> createAlert(
             @RequestBody SOSRequest request,
-            @RequestHeader("X-User-Id") String userId) {
+            @AuthenticationPrincipal String userId) {
 
         if (request.latitude() == 0 || request.longitude() == 0) {
             return ResponseEntity.badRequest().body(Map.of("error", "Location is required"));
@@ -36,28 +49,31 @@ public class SOSController {
             ));
         }
 
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "alertCode", alert.getAlertCode(),
-                "alert", SOSResponse.fromEntity(alert)
-        ));
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("alertCode", alert.getAlertCode());
+        body.put("alert", SOSResponse.fromEntity(alert));
+        // The alert stands either way; refused media is reported so the client can upload it
+        String mediaError = mediaStore.offloadInline(alert.getId(), userId, request.images(), request.audioMessage());
+        if (mediaError != null) body.put("mediaError", mediaError);
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/my-alerts")
-    public ResponseEntity<?> getMyAlerts(@RequestHeader("X-User-Id") String userId) {
-        List<SOSAlert> alerts = sosService.getAlertsBySender(userId);
-        return ResponseEntity.ok(Map.of(
-                "count", alerts.size(),
-                "alerts", alerts.stream().map(SOSResponse::fromEntity).collect(Collectors.toList())
-        ));
+    public ResponseEntity<?> getMyAlerts(
+            @AuthenticationPrincipal String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        return pageResponse(sosService.getAlertsBySender(userId, cursor, limit));
     }
 
     @GetMapping("/pending")
-    public ResponseEntity<?> getPendingAlerts(@RequestHeader("X-User-Id") String userId) {
-        List<SOSAlert> alerts = sosService.getPendingAlertsForUser(userId);
+    public ResponseEntity<?> getPendingAlerts(@AuthenticationPrincipal String userId) {
+        List<SOSResponse> alerts = sosService.getPendingAlertsForUser(userId);
         return ResponseEntity.ok(Map.of(
                 "count", alerts.size(),
-                "alerts", alerts.stream().map(SOSResponse::fromEntity).collect(Collectors.toList())
+                "alerts", alerts
         ));
     }
 
@@ -67,33 +83,38 @@ public class SOSController {
             @RequestParam double longitude,
             @RequestParam(defaultValue = "10") double radiusKm) {
 
-        List<SOSAlert> alerts = sosService.getNearbyActiveAlerts(latitude, longitude, radiusKm);
+        List<SOSResponse> alerts = sosService.getNearbyActiveAlerts(latitude, longitude, radiusKm);
         return ResponseEntity.ok(Map.of(
                 "count", alerts.size(),
-                "alerts", alerts.stream().map(SOSResponse::fromEntity).collect(Collectors.toList())
+                "alerts", alerts
         ));
     }
 
     @PostMapping("/{alertId}/accept")
     public ResponseEntity<?> acceptAlert(
             @PathVariable String alertId,
-            @RequestHeader("X-User-Id") String responderId) {
-
-        SOSAlert alert = sosService.acceptAlert(alertId, responderId);
-        if (alert == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Could not accept alert"));
+            @AuthenticationPrincipal String responderId) {
+
+        SOSService.Acceptance acceptance = sosService.acceptAlert(alertId, responderId);
+        if (acceptance.alert() == null) {
+            return switch (acceptance.rejection()) {
+                case SOSService.ACCEPT_NOT_FOUND -> ResponseEntity.notFound().build();
+                case SOSService.ACCEPT_TAKEN -> ResponseEntity.status(409).body(Map.of("error", "Alert already accepted by another rescuer"));
+                case SOSService.ACCEPT_CLOSED -> ResponseEntity.status(409).body(Map.of("error", "Alert is no longer open"));
+                default -> ResponseEntity.badRequest().body(Map.of("error", "Could not accept alert"));
+            };
         }
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Alert accepted. Navigate to the victim.",
-                "alert", SOSResponse.fromEntity(alert)
+                "alert", SOSResponse.fromEntity(acceptance.alert())
         ));
     }
 
     @PutMapping("/{alertId}/status")
     public ResponseEntity<?> updateStatus(
             @PathVariable String alertId,
-            @RequestHeader("X-User-Id") String responderId,
+            @AuthenticationPrincipal String responderId,
             @RequestParam String status) {
 
         SOSAlert alert = sosService.updateResponderStatus(alertId, responderId, status);
@@ -109,7 +130,7 @@ public class SOSController {
     @PostMapping("/{alertId}/resolve")
     public ResponseEntity<?> resolveAlert(
             @PathVariable String alertId,
-            @RequestHeader("X-User-Id") String responderId,
+            @AuthenticationPrincipal String responderId,
             @RequestBody Map<String, String> body) {
 
         String notes = body.get("notes");
@@ -129,7 +150,7 @@ public class SOSController {
     @PostMapping("/{alertId}/cancel")
     public ResponseEntity<?> cancelAlert(
             @PathVariable String alertId,
-            @RequestHeader("X-User-Id") String senderId) {
+            @AuthenticationPrincipal String senderId) {
 
         SOSAlert alert = sosService.cancelAlert(alertId, senderId);
         if (alert == null) {
@@ -144,7 +165,7 @@ public class SOSController {
     @PutMapping("/{alertId}/location/sender")
     public ResponseEntity<?> updateSenderLocation(
             @PathVariable String alertId,
-            @RequestHeader("X-User-Id") String senderId,
+            @AuthenticationPrincipal String senderId,
             @RequestBody Map<String, Object> body) {
 
         double lat = ((Number) body.get("latitude")).doubleValue();
@@ -152,8 +173,7 @@ public class SOSController {
         double accuracy = body.containsKey("accuracy") ? ((Number) body.get("accuracy")).doubleValue() : 0;
         String source = (String) body.getOrDefault("source", "GPS");
 
-        SOSAlert alert = sosService.updateSenderLocation(alertId, senderId, lat, lng, accuracy, source);
-        if (alert == null) {
+        if (!sosService.updateSenderLocation(alertId, senderId, lat, lng, accuracy, source)) {
             return ResponseEntity.badRequest().body(Map.of("error", "Could not update location"));
         }
         return ResponseEntity.ok(Map.of("success", true));
@@ -162,6 +182,7 @@ public class SOSController {
     @PutMapping("/{alertId}/location/responder")
     public ResponseEntity<?> updateResponderLocation(
             @PathVariable String alertId,
+            @AuthenticationPrincipal String responderId,
             @RequestBody Map<String, Object> body) {
 
         double lat = ((Number) body.get("latitude")).doubleValue();
@@ -169,8 +190,7 @@ public class SOSController {
         double accuracy = body.containsKey("accuracy") ? ((Number) body.get("accuracy")).doubleValue() : 0;
         String source = (String) body.getOrDefault("source", "GPS");
 
-        SOSAlert alert = sosService.updateResponderLocation(alertId, lat, lng, accuracy, source);
-        if (alert == null) {
+        if (!sosService.updateResponderLocation(alertId, responderId, lat, lng, accuracy, source)) {
             return ResponseEntity.badRequest().body(Map.of("error", "Could not update location"));
         }
         return ResponseEntity.ok(Map.of("success", true));
@@ -185,9 +205,29 @@ public class SOSController {
 
         return ResponseEntity.ok(Map.of(
                 "alert", SOSResponse.fromEntity(alert),
-                "senderLocationHistory", alert.getSenderLocationHistory(),
-                "responderLocationHistory", alert.getResponderLocationHistory(),
-                "responders", alert.getResponders()
+                "senderLocationHistory", locationTrailService.getRecentTrail(alertId, SOSLocationPoint.SENDER),
+                "responderLocationHistory", locationTrailService.getRecentTrail(alertId, SOSLocationPoint.RESPONDER),
+                "responders", alert.getResponders(),
+                "media", alert.getMedia() != null ? alert.getMedia() : List.of()
+        ));
+    }
+
+    @GetMapping("/{alertId}/track")
+    public ResponseEntity<?> getTrack(
+            @PathVariable String alertId,
+            @RequestParam(required = false) String party,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+
+        List<SOSLocationPoint> points = locationTrailService.getTrail(
+                alertId,
+                party != null ? party.toUpperCase() : null,
+                from != null ? from : Instant.EPOCH,
+                to != null ? to : Instant.now()
+        );
+        return ResponseEntity.ok(Map.of(
+                "count", points.size(),
+                "points", points
         ));
     }
 
@@ -201,11 +241,30 @@ public class SOSController {
     }
 
     @GetMapping("/my-rescues")
-    public ResponseEntity<?> getMyRescues(@RequestHeader("X-User-Id") String userId) {
-        List<SOSAlert> alerts = sosService.getAlertsAcceptedByResponder(userId);
-        return ResponseEntity.ok(Map.of(
-                "count", alerts.size(),
-                "alerts", alerts.stream().map(SOSResponse::fromEntity).collect(Collectors.toList())
-        ));
+    public ResponseEntity<?> getMyRescues(
+            @AuthenticationPrincipal String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        return pageResponse(sosService.getAlertsAcceptedByResponder(userId, cursor, limit));
+    }
+
+    @GetMapping("/active")
+    public ResponseEntity<?> getActiveAlerts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        return pageResponse(sosService.getActiveAlerts(cursor, limit));
+    }
+
+    private ResponseEntity<?> pageResponse(SOSService.AlertPage page) {
+        if (page == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("count", page.alerts().size());
+        body.put("alerts", page.alerts());
+        body.put("nextCursor", page.nextCursor());
+        return ResponseEntity.ok(body);
     }
 }
\ No newline at end of file
@@ -5,13 +5,17 @@ import com.example.navic.dto.RegisterRequest;
 import com.example.navic.models.User;
 import com.example.navic.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/auth")
 public class UserController {
@@ -21,57 +25,62 @@ public class UserController {
     private static final long TOKEN_EXPIRY_SECONDS = 7L * 24 * 60 * 60;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestParam String username, @RequestParam String password) {
-        String token = userService.register(username, password);
-        if (token == null) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Username already exists"));
-        }
-        return ResponseEntity.ok(new LoginResponse(token, TOKEN_EXPIRY_SECONDS));
+    public CompletableFuture<ResponseEntity<?>> register(@RequestParam String username, @RequestParam String password) {
+        return userService.register(username, password).<ResponseEntity<?>>thenApply(token -> {
+            if (token == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Username already exists"));
+            }
+            return ResponseEntity.ok(new LoginResponse(token, TOKEN_EXPIRY_SECONDS));
+        });
     }
 
     @PostMapping("/register/full")
-    public ResponseEntity<?> registerFull(@RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<?>> registerFull(@RequestBody RegisterRequest request) {
         if (request.username() == null || request.username().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Username is required"));
+            return badRequest("Username is required");
         }
         if (request.password() == null || request.password().length() < 6) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Password must be at least 6 characters"));
+            return badRequest("Password must be at least 6 characters");
         }
         if (request.phone() == null || request.phone().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Phone number is required"));
+            return badRequest("Phone number is required");
         }
         if (request.fullName() == null || request.fullName().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Full name is required"));
-        }
-
-        Map<String, Object> result = userService.registerFull(request);
-
-        if (!(boolean) result.get("success")) {
-            return ResponseEntity.badRequest().body(Map.of("error", result.get("error")));
+            return badRequest("Full name is required");
         }
 
-        return ResponseEntity.ok(Map.of(
-                "token", result.get("token"),
-                "expiresInSeconds", TOKEN_EXPIRY_SECONDS,
-                "userId", result.get("userId")
-        ));
+        return userService.registerFull(request).<ResponseEntity<?>>thenApply(result -> {
+            if (!(boolean) result.get("success")) {
+                return ResponseEntity.badRequest().body(Map.of("error", result.get("error")));
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "token", result.get("token"),
+                    "expiresInSeconds", TOKEN_EXPIRY_SECONDS,
+                    "userId", result.get("userId")
+            ));
+        });
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestParam String username, @RequestParam String password) {
-        Map<String, Object> result = userService.login(username, password);
-
-        if (!(boolean) result.get("success")) {
-            return ResponseEntity.status(401).body(Map.of("error", result.get("error")));
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestParam String username, @RequestParam String password) {
+        return userService.login(username, password).<ResponseEntity<?>>thenApply(result -> {
+            if (!(boolean) result.get("success")) {
+                return ResponseEntity.status(401).body(Map.of("error", result.get("error")));
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "token", result.get("token"),
+                    "expiresInSeconds", TOKEN_EXPIRY_SECONDS,
+                    "userId", result.get("userId"),
+                    "fullName", result.get("fullName") != null ? result.get("fullName") : "",
+                    "role", result.get("role") != null ? result.get("role") : "USER"
+            ));
+        });
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "token", result.get("token"),
-                "expiresInSeconds", TOKEN_EXPIRY_SECONDS,
-                "userId", result.get("userId"),
-                "fullName", result.get("fullName") != null ? result.get("fullName") : "",
-                "role", result.get("role") != null ? result.get("role") : "USER"
-        ));
+    private static CompletableFuture<ResponseEntity<?>> badRequest(String error) {
+        return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", error)));
     }
 
     @GetMapping("/profile/{userId}")
@@ -99,8 +108,8 @@ public class UserController {
         profile.put("isAvailableForRescue", user.isAvailableForRescue());
         profile.put("rescueRadiusKm", user.getRescueRadiusKm());
         profile.put("role", user.getRole());
-        profile.put("sosCount", user.getSosCount());
-        profile.put("rescueCount", user.getRescueCount());
+        profile.put("sosCount", userService.getSosCount(user));
+        profile.put("rescueCount", userService.getRescueCount(user));
         profile.put("createdAt", user.getCreatedAt());
 
         return ResponseEntity.ok(profile);
@@ -109,8 +118,13 @@ public class UserController {
     @PutMapping("/profile/{userId}")
     public ResponseEntity<?> updateProfile(
             @PathVariable String userId,
+            @AuthenticationPrincipal String currentUserId,
             @RequestBody Map<String, Object> updates) {
 
+        if (!userId.equals(currentUserId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Cannot update another user's profile"));
+        }
+
         User user = userService.updateProfile(userId, updates);
         if (user == null) {
             return ResponseEntity.notFound().build();
@@ -120,15 +134,12 @@ public class UserController {
 
     @PutMapping("/location")
     public ResponseEntity<?> updateLocation(
-            @RequestHeader("X-User-Id") String userId,
+            @AuthenticationPrincipal String userId,
             @RequestParam double latitude,
             @RequestParam double longitude) {
 
-        User user = userService.updateLocation(userId, latitude, longitude);
-        if (user == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(Map.of("message", "Location updated successfully"));
+        userService.updateLocation(userId, latitude, longitude);
+        return ResponseEntity.accepted().body(Map.of("message", "Location update accepted"));
     }
 
     @GetMapping("/nearby")
@@ -155,7 +166,7 @@ public class UserController {
 
     @PutMapping("/availability")
     public ResponseEntity<?> toggleAvailability(
-            @RequestHeader("X-User-Id") String userId,
+            @AuthenticationPrincipal String userId,
             @RequestParam boolean available) {
 
         User user = userService.toggleRescueAvailability(userId, available);
@@ -170,7 +181,7 @@ public class UserController {
 
     @PutMapping("/fcm-token")
     public ResponseEntity<?> updateFcmToken(
-            @RequestHeader("X-User-Id") String userId,
+            @AuthenticationPrincipal String userId,
             @RequestBody Map<String, String> body) {
 
         String token = body.get("fcmToken");
@@ -0,0 +1,29 @@
+package com.example.navic.dto;
+
+import com.example.navic.models.SOSAlert;
+import java.time.Instant;
+
+public record SOSEvent(
+        String type,
+        String alertId,
+        SOSResponse alert,
+        Double latitude,
+        Double longitude,
+        Instant timestamp
+) {
+    public static final String NEW_ALERT = "NEW_ALERT";
+    public static final String ALERTED = "ALERTED";
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String SENDER_LOCATION = "SENDER_LOCATION";
+    public static final String RESPONDER_LOCATION = "RESPONDER_LOCATION";
+    public static final String REMINDER = "REMINDER";
+
+    public static SOSEvent of(String type, SOSAlert alert) {
+        return new SOSEvent(type, alert.getId(), SOSResponse.fromEntity(alert), null, null, Instant.now());
+    }
+
+    public static SOSEvent location(String type, String alertId, double latitude, double longitude) {
+        return new SOSEvent(type, alertId, null, latitude, longitude, Instant.now());
+    }
+}
@@ -3,6 +3,10 @@ package com.example.navic.dto;
 import com.example.navic.models.SOSAlert;
 import java.time.Instant;
 
+/**
+ * List view of an alert. LIST_FIELDS is the matching Mongo projection, so list
+ * queries can map straight into this record without loading whole documents.
+ */
 public record SOSResponse(
         String id,
         String alertCode,
@@ -18,11 +22,16 @@ public record SOSResponse(
         String description,
         String primaryResponderName,
         int notifiedCount,
-        int responderCount,
+        Integer responderCount,
         Instant createdAt,
         Instant acceptedAt,
         String communicationMode
 ) {
+    public static final String LIST_FIELDS = "{ 'alertCode': 1, 'senderId': 1, 'senderName': 1, 'senderPhone': 1, "
+            + "'latitude': 1, 'longitude': 1, 'address': 1, 'status': 1, 'priority': 1, 'emergencyType': 1, "
+            + "'description': 1, 'primaryResponderName': 1, 'notifiedCount': 1, 'createdAt': 1, 'acceptedAt': 1, "
+            + "'communicationMode': 1, 'responderCount': { $size: { $ifNull: ['$responders', []] } } }";
+
     public static SOSResponse fromEntity(SOSAlert alert) {
         return new SOSResponse(
                 alert.getId(),
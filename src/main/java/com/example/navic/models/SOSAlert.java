@@ -1,18 +1,45 @@
 package com.example.navic.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import java.time.Instant;
 import java.util.List;
 import java.util.ArrayList;
 
 @Document(collection = "sos_alerts")
+// Created by MongoIndexInitializer. Keyset pagination indexes lead with the
+// equality field, then (createdAt, _id) in page order.
+@CompoundIndexes({
+        @CompoundIndex(name = "sender_created_id", def = "{'senderId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "responder_created_id", def = "{'primaryResponderId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "status_created_id", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+        // At most one open alert per sender; enforced by the server, so concurrent creates cannot both win.
+        // $in in a partial filter needs MongoDB 6.0 or later
+        @CompoundIndex(name = "sender_active", def = "{'senderId': 1}", unique = true,
+                partialFilter = "{'status': {$in: ['PENDING', 'ALERTED', 'ACCEPTED', 'IN_PROGRESS']}}"),
+        @CompoundIndex(name = "notified_status", def = "{'notifiedUserIds': 1, 'status': 1}"),
+        @CompoundIndex(name = "location_status", def = "{'location': '2dsphere', 'status': 1}"),
+        @CompoundIndex(name = "created", def = "{'createdAt': -1}"),
+        @CompoundIndex(name = "pending_expiry", def = "{'expiresAt': 1}",
+                partialFilter = "{'status': 'PENDING'}"),
+        @CompoundIndex(name = "dispatch_pending", def = "{'dispatch.nextAttemptAt': 1}",
+                partialFilter = "{'dispatch.status': 'PENDING'}")
+})
 public class SOSAlert {
     @Id
     private String id;
 
+    // Bumped by every MongoTemplate update; a save() of a stale copy fails with OptimisticLockingFailureException.
+    // Alerts written before it existed get 0 from MongoMigrations
+    @Version
+    private Long version;
+
+    @Indexed(name = "alert_code")
     private String alertCode;
 
     // Sender Information
@@ -23,7 +50,6 @@ public class SOSAlert {
     private String senderEmergencyContactPhone;
 
     // Location
-    @GeoSpatialIndexed
     private GeoJsonPoint location;
     private double latitude;
     private double longitude;
@@ -37,9 +63,8 @@ public class SOSAlert {
     private String description;
     private String communicationMode;
 
-    // Media
-    private List<String> images;
-    private String audioMessage;
+    // Media (content lives in GridFS, see MediaStore)
+    private List<MediaRef> media;
 
     // Responders
     private String primaryResponderId;
@@ -57,16 +82,56 @@ public class SOSAlert {
     private Instant updatedAt;
     private Instant expiresAt;
 
-    // Live Location Tracking
-    private List<LocationUpdate> senderLocationHistory;
-    private List<LocationUpdate> responderLocationHistory;
+    // Deadline scheduling (see AlertDeadlineScheduler)
+    private int renotifyCount;
+    private Instant reminderSentAt;
+
+    // Live Location Tracking (full trails live in sos_location_points)
+    private LocationUpdate lastSenderLocation;
+    private LocationUpdate lastResponderLocation;
 
     // Resolution
     private String resolutionNotes;
     private String resolutionType;
     private int responseTimeMinutes;
 
+    // Dispatch outbox, written in the same insert as the alert
+    private Dispatch dispatch;
+
     // Inner Classes
+    public static class MediaRef {
+        private String id;
+        private String kind;
+        private String contentType;
+        private long length;
+        private String uploadedBy;
+        private Instant uploadedAt;
+
+        public MediaRef() {}
+
+        public MediaRef(String id, String kind, String contentType, long length, String uploadedBy) {
+            this.id = id;
+            this.kind = kind;
+            this.contentType = contentType;
+            this.length = length;
+            this.uploadedBy = uploadedBy;
+            this.uploadedAt = Instant.now();
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getKind() { return kind; }
+        public void setKind(String kind) { this.kind = kind; }
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+        public long getLength() { return length; }
+        public void setLength(long length) { this.length = length; }
+        public String getUploadedBy() { return uploadedBy; }
+        public void setUploadedBy(String uploadedBy) { this.uploadedBy = uploadedBy; }
+        public Instant getUploadedAt() { return uploadedAt; }
+        public void setUploadedAt(Instant uploadedAt) { this.uploadedAt = uploadedAt; }
+    }
+
     public static class Responder {
         private String userId;
         private String name;
@@ -132,6 +197,31 @@ public class SOSAlert {
         public void setSource(String source) { this.source = source; }
     }
 
+    public static class Dispatch {
+        private String status;
+        private int attempts;
+        private Instant nextAttemptAt;
+        private Instant lockedUntil;
+        private String lastError;
+
+        public Dispatch() {
+            this.status = "PENDING";
+            this.attempts = 0;
+            this.nextAttemptAt = Instant.now();
+        }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public int getAttempts() { return attempts; }
+        public void setAttempts(int attempts) { this.attempts = attempts; }
+        public Instant getNextAttemptAt() { return nextAttemptAt; }
+        public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+        public Instant getLockedUntil() { return lockedUntil; }
+        public void setLockedUntil(Instant lockedUntil) { this.lockedUntil = lockedUntil; }
+        public String getLastError() { return lastError; }
+        public void setLastError(String lastError) { this.lastError = lastError; }
+    }
+
     // Constructor
     public SOSAlert() {
         this.createdAt = Instant.now();
@@ -142,9 +232,7 @@ public class SOSAlert {
         this.communicationMode = "INTERNET";
         this.responders = new ArrayList<>();
         this.notifiedUserIds = new ArrayList<>();
-        this.senderLocationHistory = new ArrayList<>();
-        this.responderLocationHistory = new ArrayList<>();
-        this.images = new ArrayList<>();
+        this.media = new ArrayList<>();
         this.notifiedCount = 0;
         this.expiresAt = Instant.now().plusSeconds(3600);
     }
@@ -159,12 +247,12 @@ public class SOSAlert {
         this.longitude = lng;
         this.location = new GeoJsonPoint(lng, lat);
         this.accuracy = accuracy;
-        this.senderLocationHistory.add(new LocationUpdate(lat, lng, accuracy, source));
+        this.lastSenderLocation = new LocationUpdate(lat, lng, accuracy, source);
         this.updatedAt = Instant.now();
     }
 
     public void addResponderLocation(double lat, double lng, double accuracy, String source) {
-        this.responderLocationHistory.add(new LocationUpdate(lat, lng, accuracy, source));
+        this.lastResponderLocation = new LocationUpdate(lat, lng, accuracy, source);
         this.updatedAt = Instant.now();
     }
 
@@ -207,6 +295,9 @@ public class SOSAlert {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getAlertCode() { return alertCode; }
     public void setAlertCode(String alertCode) { this.alertCode = alertCode; }
 
@@ -255,11 +346,8 @@ public class SOSAlert {
     public String getCommunicationMode() { return communicationMode; }
     public void setCommunicationMode(String communicationMode) { this.communicationMode = communicationMode; }
 
-    public List<String> getImages() { return images; }
-    public void setImages(List<String> images) { this.images = images; }
-
-    public String getAudioMessage() { return audioMessage; }
-    public void setAudioMessage(String audioMessage) { this.audioMessage = audioMessage; }
+    public List<MediaRef> getMedia() { return media; }
+    public void setMedia(List<MediaRef> media) { this.media = media; }
 
     public String getPrimaryResponderId() { return primaryResponderId; }
     public void setPrimaryResponderId(String primaryResponderId) { this.primaryResponderId = primaryResponderId; }
@@ -297,11 +385,17 @@ public class SOSAlert {
     public Instant getExpiresAt() { return expiresAt; }
     public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
 
-    public List<LocationUpdate> getSenderLocationHistory() { return senderLocationHistory; }
-    public void setSenderLocationHistory(List<LocationUpdate> senderLocationHistory) { this.senderLocationHistory = senderLocationHistory; }
+    public int getRenotifyCount() { return renotifyCount; }
+    public void setRenotifyCount(int renotifyCount) { this.renotifyCount = renotifyCount; }
+
+    public Instant getReminderSentAt() { return reminderSentAt; }
+    public void setReminderSentAt(Instant reminderSentAt) { this.reminderSentAt = reminderSentAt; }
 
-    public List<LocationUpdate> getResponderLocationHistory() { return responderLocationHistory; }
-    public void setResponderLocationHistory(List<LocationUpdate> responderLocationHistory) { this.responderLocationHistory = responderLocationHistory; }
+    public LocationUpdate getLastSenderLocation() { return lastSenderLocation; }
+    public void setLastSenderLocation(LocationUpdate lastSenderLocation) { this.lastSenderLocation = lastSenderLocation; }
+
+    public LocationUpdate getLastResponderLocation() { return lastResponderLocation; }
+    public void setLastResponderLocation(LocationUpdate lastResponderLocation) { this.lastResponderLocation = lastResponderLocation; }
 
     public String getResolutionNotes() { return resolutionNotes; }
     public void setResolutionNotes(String resolutionNotes) { this.resolutionNotes = resolutionNotes; }
@@ -311,4 +405,7 @@ public class SOSAlert {
 
     public int getResponseTimeMinutes() { return responseTimeMinutes; }
     public void setResponseTimeMinutes(int responseTimeMinutes) { this.responseTimeMinutes = responseTimeMinutes; }
+
+    public Dispatch getDispatch() { return dispatch; }
+    public void setDispatch(Dispatch dispatch) { this.dispatch = dispatch; }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.navic.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import java.time.Instant;
+
+@Document(collection = "sos_location_points")
+@TimeSeries(timeField = "timestamp", metaField = "alertId", granularity = Granularity.SECONDS)
+// Same key and generated name as the index MongoDB 6.3+ adds to new time-series collections
+@CompoundIndex(def = "{'alertId': 1, 'timestamp': 1}")
+public class SOSLocationPoint {
+    public static final String SENDER = "SENDER";
+    public static final String RESPONDER = "RESPONDER";
+
+    @Id
+    private String id;
+
+    private String alertId;
+    private String party;
+    private double latitude;
+    private double longitude;
+    private double accuracy;
+    private String source;
+    private Instant timestamp;
+
+    public SOSLocationPoint() {}
+
+    public SOSLocationPoint(String alertId, String party, double lat, double lng, double accuracy, String source) {
+        this.alertId = alertId;
+        this.party = party;
+        this.latitude = lat;
+        this.longitude = lng;
+        this.accuracy = accuracy;
+        this.source = source;
+        this.timestamp = Instant.now();
+    }
+
+    public SOSAlert.LocationUpdate toLocationUpdate() {
+        SOSAlert.LocationUpdate update = new SOSAlert.LocationUpdate(latitude, longitude, accuracy, source);
+        update.setTimestamp(timestamp);
+        return update;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getAlertId() { return alertId; }
+    public void setAlertId(String alertId) { this.alertId = alertId; }
+
+    public String getParty() { return party; }
+    public void setParty(String party) { this.party = party; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public double getAccuracy() { return accuracy; }
+    public void setAccuracy(double accuracy) { this.accuracy = accuracy; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public Instant getTimestamp() { return timestamp; }
+    public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+}
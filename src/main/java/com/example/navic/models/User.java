@@ -3,11 +3,18 @@ package com.example.navic.models;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
-import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import java.time.Instant;
 
 @Document(collection = "users")
+// Created by MongoIndexInitializer
+@CompoundIndexes({
+        @CompoundIndex(name = "location_available_active",
+                def = "{'location': '2dsphere', 'isAvailableForRescue': 1, 'isActive': 1}"),
+        @CompoundIndex(name = "available_active", def = "{'isAvailableForRescue': 1, 'isActive': 1}")
+})
 public class User {
     @Id
     private String id;
@@ -23,13 +30,13 @@ public class User {
     @Indexed(unique = true, sparse = true)
     private String phone;
 
+    @Indexed(sparse = true)
     private String email;
     private String emergencyContact;
     private String emergencyContactPhone;
     private String profileImage;
 
     // Location Data
-    @GeoSpatialIndexed
     private GeoJsonPoint location;
 
     private double latitude;
@@ -0,0 +1,22 @@
+package com.example.navic.repositories;
+
+import com.example.navic.dto.SOSResponse;
+import com.example.navic.models.SOSAlert;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of SOSAlertRepository for the reactive profile.
+ */
+public interface ReactiveSOSAlertRepository extends ReactiveMongoRepository<SOSAlert, String> {
+
+    @Query(value = "{ 'senderId': ?0 }", fields = SOSResponse.LIST_FIELDS, sort = "{ 'createdAt': -1 }")
+    Flux<SOSResponse> findBySenderIdOrderByCreatedAtDesc(String senderId);
+
+    @Query(value = "{ 'notifiedUserIds': ?0, 'status': { $in: ['PENDING', 'ALERTED'] } }", fields = SOSResponse.LIST_FIELDS)
+    Flux<SOSResponse> findPendingAlertsForUser(String userId);
+
+    @Query(value = "{ 'location': { $nearSphere: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'status': { $in: ['PENDING', 'ALERTED', 'ACCEPTED'] } }", fields = SOSResponse.LIST_FIELDS)
+    Flux<SOSResponse> findNearbyActiveAlerts(double longitude, double latitude, double maxDistanceInMeters);
+}
@@ -0,0 +1,17 @@
+package com.example.navic.repositories;
+
+import com.example.navic.models.SOSLocationPoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Non-blocking counterpart of SOSLocationPointRepository for the reactive profile.
+ */
+public interface ReactiveSOSLocationPointRepository extends ReactiveMongoRepository<SOSLocationPoint, String> {
+
+    Flux<SOSLocationPoint> findByAlertIdAndTimestampBetweenOrderByTimestampAsc(String alertId, Instant from, Instant to);
+
+    Flux<SOSLocationPoint> findByAlertIdAndPartyAndTimestampBetweenOrderByTimestampAsc(String alertId, String party, Instant from, Instant to);
+}
@@ -0,0 +1,15 @@
+package com.example.navic.repositories;
+
+import com.example.navic.models.User;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of UserRepository for the reactive profile.
+ */
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+
+    @Query("{ 'location': { $nearSphere: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'isAvailableForRescue': true, 'isActive': true, '_id': { $ne: ?3 } }")
+    Flux<User> findNearbyAvailableRescuers(double longitude, double latitude, double maxDistanceInMeters, String excludeUserId);
+}
@@ -1,5 +1,6 @@
 package com.example.navic.repositories;
 
+import com.example.navic.dto.SOSResponse;
 import com.example.navic.models.SOSAlert;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -17,8 +18,8 @@ public interface SOSAlertRepository extends MongoRepository<SOSAlert, String> {
     @Query("{ 'status': { $in: ['PENDING', 'ALERTED', 'ACCEPTED', 'IN_PROGRESS'] } }")
     List<SOSAlert> findActiveAlerts();
 
-    @Query("{ 'notifiedUserIds': ?0, 'status': { $in: ['PENDING', 'ALERTED'] } }")
-    List<SOSAlert> findPendingAlertsForUser(String userId);
+    @Query(value = "{ 'notifiedUserIds': ?0, 'status': { $in: ['PENDING', 'ALERTED'] } }", fields = SOSResponse.LIST_FIELDS)
+    List<SOSResponse> findPendingAlertsForUser(String userId);
 
     List<SOSAlert> findByPrimaryResponderIdOrderByCreatedAtDesc(String responderId);
 
@@ -27,8 +28,6 @@ public interface SOSAlertRepository extends MongoRepository<SOSAlert, String> {
     @Query("{ 'status': 'PENDING', 'expiresAt': { $lt: ?0 } }")
     List<SOSAlert> findExpiredAlerts(Instant now);
 
-    @Query("{ 'location': { $nearSphere: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'status': { $in: ['PENDING', 'ALERTED', 'ACCEPTED'] } }")
-    List<SOSAlert> findNearbyActiveAlerts(double longitude, double latitude, double maxDistanceInMeters);
-
-    long countBySenderIdAndStatusIn(String senderId, List<String> statuses);
+    @Query(value = "{ 'location': { $nearSphere: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'status': { $in: ['PENDING', 'ALERTED', 'ACCEPTED'] } }", fields = SOSResponse.LIST_FIELDS)
+    List<SOSResponse> findNearbyActiveAlerts(double longitude, double latitude, double maxDistanceInMeters);
 }
\ No newline at end of file
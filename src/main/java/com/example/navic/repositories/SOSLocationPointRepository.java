@@ -0,0 +1,15 @@
+package com.example.navic.repositories;
+
+import com.example.navic.models.SOSLocationPoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.time.Instant;
+import java.util.List;
+
+public interface SOSLocationPointRepository extends MongoRepository<SOSLocationPoint, String> {
+
+    List<SOSLocationPoint> findByAlertIdAndTimestampBetweenOrderByTimestampAsc(String alertId, Instant from, Instant to);
+
+    List<SOSLocationPoint> findByAlertIdAndPartyAndTimestampBetweenOrderByTimestampAsc(String alertId, String party, Instant from, Instant to);
+
+    List<SOSLocationPoint> findTop500ByAlertIdAndPartyOrderByTimestampDesc(String alertId, String party);
+}
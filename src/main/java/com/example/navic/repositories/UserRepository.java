@@ -1,11 +1,13 @@
 package com.example.navic.repositories;
 
 import com.example.navic.models.User;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.geo.Distance;
 import org.springframework.data.geo.Point;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserRepository extends MongoRepository<User, String> {
     User findByUsername(String username);
@@ -17,9 +19,16 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Query("{ 'location': { $nearSphere: { $geometry: { type: 'Point', coordinates: [?0, ?1] }, $maxDistance: ?2 } }, 'isAvailableForRescue': true, 'isActive': true, '_id': { $ne: ?3 } }")
     List<User> findNearbyAvailableRescuers(double longitude, double latitude, double maxDistanceInMeters, String excludeUserId);
 
-    List<User> findByIsActiveTrue();
+    // Nearest first between the two distances, keeping only rescuers whose own rescueRadiusKm (if set) reaches the point
+    @Aggregation(pipeline = {
+            "{ $geoNear: { near: { type: 'Point', coordinates: [?0, ?1] }, key: 'location', spherical: true, distanceField: 'dispatchDistance', minDistance: ?2, maxDistance: ?3, query: { 'isAvailableForRescue': true, 'isActive': true } } }",
+            "{ $match: { $expr: { $or: [ { $lte: [ { $ifNull: ['$rescueRadiusKm', 0] }, 0 ] }, { $lte: ['$dispatchDistance', { $multiply: ['$rescueRadiusKm', 1000] }] } ] } } }",
+            "{ $limit: ?4 }"
+    })
+    List<User> findRescuersInRing(double longitude, double latitude, double minDistanceInMeters, double maxDistanceInMeters, int limit);
 
-    List<User> findByRole(String role);
+    @Query("{ 'isAvailableForRescue': true, 'isActive': true }")
+    Stream<User> streamAvailableRescuers();
 
     List<User> findByIdIn(List<String> ids);
 }
\ No newline at end of file
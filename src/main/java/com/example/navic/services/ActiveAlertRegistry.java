@@ -0,0 +1,389 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Write-through copy of the alerts that are still open, indexed by id,
+ * alertCode, sender, notified user, geo cell and creation order.
+ * SOSService applies every alert it writes; alerts drop out once they reach
+ * a terminal status. Alerts written by other nodes show up at the next
+ * reconcile, which reloads the open set from Mongo and is authoritative for
+ * every entry not written since it started.
+ * Entries are never modified in place, so readers may keep what they get.
+ */
+@Profile("!reactive")
+@Component
+public class ActiveAlertRegistry {
+    private static final Logger log = LoggerFactory.getLogger(ActiveAlertRegistry.class);
+
+    public static final List<String> ACTIVE_STATUSES = List.of("PENDING", "ALERTED", "ACCEPTED", "IN_PROGRESS");
+    private static final Set<String> AWAITING_RESPONSE = Set.of("PENDING", "ALERTED");
+
+    /**
+     * Published by writers outside SOSService with the alert as it now stands.
+     */
+    public record AlertUpdated(SOSAlert alert) {}
+
+    /**
+     * Published after every reconcile with the open alerts as now held.
+     */
+    public record Reconciled(List<SOSAlert> openAlerts) {}
+
+    private record Entry(SOSAlert alert, long cell, Position position, Instant appliedAt) {}
+
+    // Newest first, the same order as the (createdAt, _id) descending indexes
+    private record Position(long createdAt, String id) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int byTime = Long.compare(other.createdAt, createdAt);
+            return byTime != 0 ? byTime : other.id.compareTo(id);
+        }
+    }
+
+    public record Nearby(SOSAlert alert, double distanceKm) {}
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final GeoGrid grid;
+
+    private final ConcurrentHashMap<String, Entry> alerts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> byCode = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> bySender = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> byNotified = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Position, String> newestFirst = new ConcurrentSkipListMap<>();
+
+    // Closed alerts, so a late write-through cannot bring them back before the next reconcile
+    private final ConcurrentHashMap<String, Instant> closed = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public ActiveAlertRegistry(@Value("${navic.active-alerts.cell-size-deg:0.05}") double cellSizeDeg) {
+        this.grid = new GeoGrid(cellSizeDeg);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return alerts.size();
+    }
+
+    /**
+     * Record an alert as just written to Mongo. Open alerts are indexed,
+     * closed ones removed. Ignored if a newer update is already held.
+     */
+    public void apply(SOSAlert alert) {
+        if (alert == null || alert.getId() == null) return;
+
+        writeLock.lock();
+        try {
+            Entry current = alerts.get(alert.getId());
+            if (current != null && isOlder(alert, current.alert())) return;
+            if (!ACTIVE_STATUSES.contains(alert.getStatus())) {
+                unindex(alert.getId());
+                closed.put(alert.getId(), Instant.now());
+                return;
+            }
+            if (current == null && closed.containsKey(alert.getId())) return;
+            index(alert, Instant.now());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onAlertUpdated(AlertUpdated event) {
+        apply(event.alert());
+    }
+
+    public void moveSender(String alertId, double lat, double lng, double accuracy, String source, Instant at) {
+        modify(alertId, at, alert -> {
+            alert.setLatitude(lat);
+            alert.setLongitude(lng);
+            alert.setLocation(new GeoJsonPoint(lng, lat));
+            alert.setAccuracy(accuracy);
+            alert.setLastSenderLocation(new SOSAlert.LocationUpdate(lat, lng, accuracy, source));
+        });
+    }
+
+    public void moveResponder(String alertId, double lat, double lng, double accuracy, String source, Instant at) {
+        modify(alertId, at, alert ->
+                alert.setLastResponderLocation(new SOSAlert.LocationUpdate(lat, lng, accuracy, source)));
+    }
+
+    // Applies a partial update to a copy of the held alert
+    private void modify(String alertId, Instant at, Consumer<SOSAlert> change) {
+        Instant updatedAt = truncate(at);
+        writeLock.lock();
+        try {
+            Entry current = alerts.get(alertId);
+            if (current == null || updatedAt.isBefore(truncate(current.alert().getUpdatedAt()))) return;
+
+            SOSAlert copy = copyOf(current.alert());
+            change.accept(copy);
+            copy.setUpdatedAt(updatedAt);
+            index(copy, Instant.now());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public SOSAlert get(String alertId) {
+        Entry entry = alerts.get(alertId);
+        return entry != null ? entry.alert() : null;
+    }
+
+    public SOSAlert getByCode(String alertCode) {
+        String alertId = byCode.get(alertCode);
+        SOSAlert alert = alertId != null ? get(alertId) : null;
+        return alert != null && alertCode.equals(alert.getAlertCode()) ? alert : null;
+    }
+
+    public boolean hasActiveAlert(String senderId) {
+        return !resolve(bySender.get(senderId), alert -> senderId.equals(alert.getSenderId())).isEmpty();
+    }
+
+    /**
+     * Alerts the user was notified of that nobody has accepted yet, newest first.
+     */
+    public List<SOSAlert> awaitingResponseFrom(String userId) {
+        return resolve(byNotified.get(userId), alert ->
+                AWAITING_RESPONSE.contains(alert.getStatus())
+                        && alert.getNotifiedUserIds() != null
+                        && alert.getNotifiedUserIds().contains(userId));
+    }
+
+    /**
+     * Up to limit open alerts, newest first, starting after the given
+     * position (createdAt millis and id), or from the newest if createdAt is null.
+     */
+    public List<SOSAlert> page(Instant createdAt, String alertId, int limit) {
+        Map<Position, String> from = createdAt == null
+                ? newestFirst
+                : newestFirst.tailMap(new Position(createdAt.toEpochMilli(), alertId), false);
+
+        List<SOSAlert> page = new ArrayList<>(limit);
+        for (String id : from.values()) {
+            SOSAlert alert = get(id);
+            if (alert == null) continue;
+            page.add(alert);
+            if (page.size() == limit) break;
+        }
+        return page;
+    }
+
+    /**
+     * Open alerts in one of the given statuses within radiusKm, nearest first.
+     */
+    public List<Nearby> near(double lat, double lng, double radiusKm, Collection<String> statuses) {
+        List<Nearby> matches = new ArrayList<>();
+        grid.forEachCellWithin(lat, lng, radiusKm, cells.keySet(), cell -> {
+            Set<String> members = cells.get(cell);
+            if (members == null) return;
+
+            for (String alertId : members) {
+                Entry entry = alerts.get(alertId);
+                if (entry == null || entry.cell() != cell || !statuses.contains(entry.alert().getStatus())) continue;
+
+                SOSAlert alert = entry.alert();
+                double distance = GeoMath.haversineKm(lat, lng, alert.getLatitude(), alert.getLongitude());
+                if (distance <= radiusKm) {
+                    matches.add(new Nearby(alert, distance));
+                }
+            }
+        });
+        matches.sort(Comparator.comparingDouble(Nearby::distanceKm));
+        return matches;
+    }
+
+    /**
+     * Reload the open alerts from Mongo and correct whatever has drifted.
+     * Runs once at startup and then on a timer; reads fall back to Mongo
+     * until the first run has completed.
+     */
+    @Scheduled(fixedDelayString = "${navic.active-alerts.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        Instant started = Instant.now();
+        List<SOSAlert> open;
+        try {
+            open = mongoTemplate.find(Query.query(Criteria.where("status").in(ACTIVE_STATUSES)), SOSAlert.class);
+        } catch (RuntimeException e) {
+            log.warn("Active alert reconcile failed: {}", e.getMessage());
+            return;
+        }
+
+        int corrected = 0;
+        writeLock.lock();
+        try {
+            Set<String> seen = new HashSet<>(open.size());
+            for (SOSAlert alert : open) {
+                seen.add(alert.getId());
+                Entry current = alerts.get(alert.getId());
+                // Written through since the snapshot was taken; check again next time
+                if (current != null && !current.appliedAt().isBefore(started)) continue;
+                Instant closedAt = closed.get(alert.getId());
+                if (closedAt != null && !closedAt.isBefore(started)) continue;
+
+                if (current == null || differs(current.alert(), alert)) corrected++;
+                index(alert, started);
+            }
+
+            for (Entry entry : List.copyOf(alerts.values())) {
+                String alertId = entry.alert().getId();
+                if (!seen.contains(alertId) && entry.appliedAt().isBefore(started)) {
+                    unindex(alertId);
+                    corrected++;
+                }
+            }
+            closed.values().removeIf(closedAt -> closedAt.isBefore(started));
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (ready && corrected > 0) {
+            log.info("Active alert registry corrected {} entries from Mongo", corrected);
+        }
+        ready = true;
+        applicationEventPublisher.publishEvent(new Reconciled(alerts.values().stream().map(Entry::alert).toList()));
+    }
+
+    // Caller holds writeLock
+    private void index(SOSAlert alert, Instant appliedAt) {
+        String alertId = alert.getId();
+        Entry previous = alerts.get(alertId);
+        Entry entry = new Entry(alert, grid.cellOf(alert.getLatitude(), alert.getLongitude()),
+                new Position(alert.getCreatedAt() != null ? alert.getCreatedAt().toEpochMilli() : 0L, alertId),
+                appliedAt);
+
+        // Link before publishing, so a reader can find the alert through any index once get() returns it
+        if (alert.getAlertCode() != null) byCode.put(alert.getAlertCode(), alertId);
+        if (alert.getSenderId() != null) link(bySender, alert.getSenderId(), alertId);
+        if (alert.getNotifiedUserIds() != null) {
+            for (String userId : alert.getNotifiedUserIds()) link(byNotified, userId, alertId);
+        }
+        cells.computeIfAbsent(entry.cell(), k -> ConcurrentHashMap.newKeySet()).add(alertId);
+        newestFirst.put(entry.position(), alertId);
+        alerts.put(alertId, entry);
+
+        if (previous != null) unlinkStale(previous, entry);
+    }
+
+    // Caller holds writeLock
+    private void unindex(String alertId) {
+        Entry previous = alerts.remove(alertId);
+        if (previous != null) unlinkStale(previous, null);
+    }
+
+    private void unlinkStale(Entry previous, Entry current) {
+        SOSAlert old = previous.alert();
+        SOSAlert now = current != null ? current.alert() : null;
+        String alertId = old.getId();
+
+        if (old.getAlertCode() != null && (now == null || !old.getAlertCode().equals(now.getAlertCode()))) {
+            byCode.remove(old.getAlertCode(), alertId);
+        }
+        if (old.getSenderId() != null && (now == null || !old.getSenderId().equals(now.getSenderId()))) {
+            unlink(bySender, old.getSenderId(), alertId);
+        }
+        if (old.getNotifiedUserIds() != null) {
+            for (String userId : old.getNotifiedUserIds()) {
+                if (now == null || now.getNotifiedUserIds() == null || !now.getNotifiedUserIds().contains(userId)) {
+                    unlink(byNotified, userId, alertId);
+                }
+            }
+        }
+        if (current == null || previous.cell() != current.cell()) {
+            // Empty cells are dropped, so near() can bound its walk by the occupied ones
+            cells.computeIfPresent(previous.cell(), (k, members) -> {
+                members.remove(alertId);
+                return members.isEmpty() ? null : members;
+            });
+        }
+        if (current == null || !previous.position().equals(current.position())) {
+            newestFirst.remove(previous.position(), alertId);
+        }
+    }
+
+    private static void link(ConcurrentHashMap<String, Set<String>> index, String key, String alertId) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(alertId);
+    }
+
+    private static void unlink(ConcurrentHashMap<String, Set<String>> index, String key, String alertId) {
+        index.computeIfPresent(key, (k, members) -> {
+            members.remove(alertId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private List<SOSAlert> resolve(Set<String> alertIds, Predicate<SOSAlert> stillMatches) {
+        if (alertIds == null || alertIds.isEmpty()) return List.of();
+
+        List<SOSAlert> matches = new ArrayList<>(alertIds.size());
+        for (String alertId : alertIds) {
+            SOSAlert alert = get(alertId);
+            if (alert != null && stillMatches.test(alert)) matches.add(alert);
+        }
+        matches.sort(Comparator.comparing(SOSAlert::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return matches;
+    }
+
+    private SOSAlert copyOf(SOSAlert alert) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        Document document = new Document();
+        converter.write(alert, document);
+        return converter.read(SOSAlert.class, document);
+    }
+
+    // Mongo keeps milliseconds, so compare at that precision
+    private static boolean isOlder(SOSAlert incoming, SOSAlert held) {
+        if (incoming.getUpdatedAt() == null || held.getUpdatedAt() == null) return false;
+        return truncate(incoming.getUpdatedAt()).isBefore(truncate(held.getUpdatedAt()));
+    }
+
+    private static boolean differs(SOSAlert held, SOSAlert stored) {
+        return !Objects.equals(held.getStatus(), stored.getStatus())
+                || !Objects.equals(truncate(held.getUpdatedAt()), truncate(stored.getUpdatedAt()));
+    }
+
+    private static Instant truncate(Instant instant) {
+        return instant != null ? instant.truncatedTo(ChronoUnit.MILLIS) : null;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-alert deadlines on a TimingWheel: expiry of alerts nobody accepted,
+ * re-notification while an alert waits for a rescuer, and an arrival
+ * reminder to the accepting responder. Deadlines are (re)armed from every
+ * alert SOSService writes and from every ActiveAlertRegistry reconcile, so
+ * they are rebuilt from Mongo after a restart without a scan of their own.
+ *
+ * A deadline only publishes DeadlineReached; SOSService re-checks the alert
+ * in a conditional update, so stale or duplicate timers on other nodes are
+ * harmless.
+ */
+@Profile("!reactive")
+@Component
+public class AlertDeadlineScheduler {
+    private static final Logger log = LoggerFactory.getLogger(AlertDeadlineScheduler.class);
+
+    public static final String EXPIRE = "EXPIRE";
+    public static final String RENOTIFY = "RENOTIFY";
+    public static final String REMIND = "REMIND";
+
+    public record DeadlineReached(String alertId, String kind, int round) {}
+
+    private record TimerKey(String alertId, String kind) {}
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final TimingWheel<TimerKey, Integer> wheel;
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final ThreadPoolExecutor executor;
+    private final long tickMillis;
+    private final Duration renotifyAfter;
+    private final int maxRenotify;
+    private final Duration reminderAfter;
+    private volatile Thread ticker;
+
+    public AlertDeadlineScheduler(
+            @Value("${navic.alerts.timer-tick-ms:1000}") long tickMillis,
+            @Value("${navic.alerts.timer-wheel-size:256}") int wheelSize,
+            @Value("${navic.alerts.timer-threads:2}") int threads,
+            @Value("${navic.alerts.renotify-after-seconds:60}") long renotifyAfterSeconds,
+            @Value("${navic.alerts.max-renotify:3}") int maxRenotify,
+            @Value("${navic.alerts.arrival-reminder-seconds:600}") long reminderAfterSeconds
+    ) {
+        this.wheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        this.tickMillis = tickMillis;
+        this.renotifyAfter = Duration.ofSeconds(renotifyAfterSeconds);
+        this.maxRenotify = maxRenotify;
+        this.reminderAfter = Duration.ofSeconds(reminderAfterSeconds);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10_000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "alert-deadline-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // A burst of deadlines slows the ticker down instead of losing any
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::run, "alert-deadline-ticker");
+        thread.setDaemon(true);
+        ticker = thread;
+        thread.start();
+    }
+
+    @EventListener
+    public void onReconciled(ActiveAlertRegistry.Reconciled event) {
+        event.openAlerts().forEach(this::track);
+    }
+
+    /**
+     * Arm, move or cancel the deadlines of an alert to match its current state.
+     */
+    public void track(SOSAlert alert) {
+        if (alert == null || alert.getId() == null || alert.getStatus() == null) return;
+        String alertId = alert.getId();
+
+        wheelLock.lock();
+        try {
+            switch (alert.getStatus()) {
+                case "PENDING", "ALERTED" -> {
+                    arm(alertId, EXPIRE, 0, alert.getExpiresAt());
+                    int round = alert.getRenotifyCount();
+                    if (round < maxRenotify && alert.getCreatedAt() != null) {
+                        arm(alertId, RENOTIFY, round, alert.getCreatedAt().plus(renotifyAfter.multipliedBy(round + 1)));
+                    } else {
+                        wheel.cancel(new TimerKey(alertId, RENOTIFY));
+                    }
+                    wheel.cancel(new TimerKey(alertId, REMIND));
+                }
+                case "ACCEPTED" -> {
+                    wheel.cancel(new TimerKey(alertId, EXPIRE));
+                    wheel.cancel(new TimerKey(alertId, RENOTIFY));
+                    if (alert.getReminderSentAt() == null && alert.getAcceptedAt() != null) {
+                        arm(alertId, REMIND, 0, alert.getAcceptedAt().plus(reminderAfter));
+                    } else {
+                        wheel.cancel(new TimerKey(alertId, REMIND));
+                    }
+                }
+                default -> {
+                    wheel.cancel(new TimerKey(alertId, EXPIRE));
+                    wheel.cancel(new TimerKey(alertId, RENOTIFY));
+                    wheel.cancel(new TimerKey(alertId, REMIND));
+                }
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    public int pending() {
+        wheelLock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    // Caller holds wheelLock
+    private void arm(String alertId, String kind, int round, Instant at) {
+        if (at == null) return;
+        TimerKey key = new TimerKey(alertId, kind);
+        long deadline = at.toEpochMilli();
+        // Every write and every reconcile re-tracks the alert; leave an unchanged timer alone
+        if (wheel.deadlineOf(key) == deadline) return;
+        wheel.schedule(key, round, deadline);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            List<TimingWheel.Expired<TimerKey, Integer>> due;
+            wheelLock.lock();
+            try {
+                due = wheel.advanceTo(System.currentTimeMillis());
+            } finally {
+                wheelLock.unlock();
+            }
+
+            for (TimingWheel.Expired<TimerKey, Integer> expired : due) {
+                DeadlineReached event = new DeadlineReached(expired.key().alertId(), expired.key().kind(), expired.value());
+                executor.execute(() -> fire(event));
+            }
+        }
+    }
+
+    private void fire(DeadlineReached event) {
+        try {
+            applicationEventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("{} deadline for alert {} failed: {}", event.kind(), event.alertId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread = ticker;
+        if (thread != null) thread.interrupt();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.navic.services;
+
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Fixed-size lat/lng squares used by the in-memory geo indexes. A radius
+ * query only visits the cells overlapping the bounding box of the search
+ * circle, or only the occupied ones when the box holds more cells than that.
+ */
+final class GeoGrid {
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final double cellSizeDeg;
+    private final int columns;
+
+    GeoGrid(double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.columns = (int) Math.ceil(360.0 / cellSizeDeg);
+    }
+
+    long cellOf(double lat, double lng) {
+        return key(row(lat), Math.floorMod(column(lng), columns));
+    }
+
+    /**
+     * Visits the cells in the search box. With the index's occupied cells
+     * given, a box larger than that set is served by walking the set, so a
+     * huge radius costs no more than the number of non-empty cells. Pass
+     * null to walk the box.
+     */
+    void forEachCellWithin(double lat, double lng, double radiusKm, Set<Long> occupied, LongConsumer action) {
+        double latSpan = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(lat) + latSpan)));
+        double lngSpan = Math.min(180.0, radiusKm / (KM_PER_DEGREE_LAT * Math.max(cosLat, 1e-6)));
+
+        int minRow = row(Math.max(-90.0, lat - latSpan));
+        int maxRow = row(Math.min(90.0, lat + latSpan));
+        int minCol = column(lng - lngSpan);
+        int colCount = Math.min(columns, column(lng + lngSpan) - minCol + 1);
+
+        if (occupied != null && (long) (maxRow - minRow + 1) * colCount > occupied.size()) {
+            for (long cell : occupied) {
+                long r = cell / columns;
+                int c = (int) (cell % columns);
+                if (r >= minRow && r <= maxRow && Math.floorMod(c - minCol, columns) < colCount) {
+                    action.accept(cell);
+                }
+            }
+            return;
+        }
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int i = 0; i < colCount; i++) {
+                action.accept(key(r, Math.floorMod(minCol + i, columns)));
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / cellSizeDeg);
+    }
+
+    private int column(double lng) {
+        return (int) Math.floor((lng + 180.0) / cellSizeDeg);
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + column;
+    }
+}
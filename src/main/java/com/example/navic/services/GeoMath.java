@@ -0,0 +1,99 @@
+package com.example.navic.services;
+
+/**
+ * Distance math over structure-of-arrays coordinates: parallel double[]
+ * buffers of latitudes and longitudes in degrees plus a count.
+ *
+ * withinRadius screens every point with an equirectangular lower bound and
+ * runs the exact haversine only for the points that survive it. The bound,
+ * for central angle t, latitude and longitude differences dp and dl (radians),
+ * mid latitude pm and any c <= cos(pm):
+ *
+ *   sin^2(t/2) = sin^2(dp/2) + (cos^2(pm) - sin^2(dp/2)) * sin^2(dl/2)
+ *   x^2/4 * (1 - x^2/12) <= sin^2(x/2) <= x^2/4
+ *
+ * give t^2 >= (dp^2 + c^2 * dl^2) * (1 - max(dp, dl)^2 / 12 - dl^2 / 4),
+ * so a point whose bound exceeds the radius is outside it and no point
+ * inside is ever dropped. The bound is loose only by the shrink factor and
+ * by c standing in for cos(pm); at dispatch radii below 60 degrees
+ * latitude that is under 2%, so few points reach the haversine needlessly.
+ */
+public final class GeoMath {
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180.0;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private GeoMath() {}
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Haversine distance from (lat, lng) to each of the first count points.
+     */
+    public static void haversineKm(double lat, double lng, double[] lats, double[] lngs, int count, double[] outKm) {
+        double lat0 = lat * RADIANS_PER_DEGREE;
+        double cosLat0 = Math.cos(lat0);
+        for (int i = 0; i < count; i++) {
+            double lat1 = lats[i] * RADIANS_PER_DEGREE;
+            double sinHalfLat = Math.sin((lat1 - lat0) * 0.5);
+            double sinHalfLng = Math.sin((lngs[i] - lng) * RADIANS_PER_DEGREE * 0.5);
+            double a = sinHalfLat * sinHalfLat + cosLat0 * Math.cos(lat1) * sinHalfLng * sinHalfLng;
+            outKm[i] = EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        }
+    }
+
+    /**
+     * Points among the first count within radiusKm of (lat, lng). Their
+     * indexes and exact distances go to outIndex and outKm, in input order;
+     * returns how many there are. scratch needs room for count doubles.
+     */
+    public static int withinRadius(double lat, double lng, double radiusKm,
+                                   double[] lats, double[] lngs, int count,
+                                   double[] scratch, int[] outIndex, double[] outKm) {
+        double radius = radiusKm / EARTH_RADIUS_KM;
+        double lat0 = lat * RADIANS_PER_DEGREE;
+        double lng0 = lng * RADIANS_PER_DEGREE;
+        // Only points with |dp| <= radius can match, and their mid latitude is at most radius/2 from lat0
+        double c = Math.cos(Math.min(Math.PI / 2, Math.abs(lat0) + radius / 2));
+        double c2 = c * c;
+
+        // Branch-free pass over flat arrays, so C2 can vectorize it
+        for (int i = 0; i < count; i++) {
+            double dp = lats[i] * RADIANS_PER_DEGREE - lat0;
+            double dl = lngs[i] * RADIANS_PER_DEGREE - lng0;
+            dl -= TWO_PI * Math.rint(dl / TWO_PI);
+            double dp2 = dp * dp;
+            double dl2 = dl * dl;
+            double shrink = 1 - Math.max(dp2, dl2) / 12 - dl2 / 4;
+            // |dp| is a lower bound on its own; it also keeps the c bound honest far from lat0
+            scratch[i] = Math.max(dp2, (dp2 + c2 * dl2) * Math.max(shrink, 0));
+        }
+
+        // Slack for rounding, so a point the haversine puts exactly on the radius is not screened out
+        double radius2 = radius * radius * (1 + 1e-9);
+        double cosLat0 = Math.cos(lat0);
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (scratch[i] > radius2) continue;
+            double lat1 = lats[i] * RADIANS_PER_DEGREE;
+            double sinHalfLat = Math.sin((lat1 - lat0) * 0.5);
+            double sinHalfLng = Math.sin((lngs[i] * RADIANS_PER_DEGREE - lng0) * 0.5);
+            double a = sinHalfLat * sinHalfLat + cosLat0 * Math.cos(lat1) * sinHalfLng * sinHalfLng;
+            double km = EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+            if (km <= radiusKm) {
+                outIndex[found] = i;
+                outKm[found] = km;
+                found++;
+            }
+        }
+        return found;
+    }
+}
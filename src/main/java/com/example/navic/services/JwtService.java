@@ -1,10 +1,17 @@
 package com.example.navic.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 
@@ -12,15 +19,30 @@ import java.util.Date;
 public class JwtService {
     private final SecretKey key;
     private final long ttlDays;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    /**
+     * A token whose signature has already been checked.
+     */
+    public record VerifiedToken(String subject, Instant expiresAt) {}
 
     public JwtService(
-            @Value("${security.jwt.ttl-days:7}") long ttlDays
+            @Value("${security.jwt.ttl-days:7}") long ttlDays,
+            @Value("${security.jwt.secret:NavICEmergencyResponseSystemSecretKeyForJWT2024ISRO}") String secret,
+            @Value("${security.jwt.cache-size:10000}") long cacheSize
     ) {
         // Generate a secure key for HS256
-        this.key = Keys.hmacShaKeyFor(
-                "NavICEmergencyResponseSystemSecretKeyForJWT2024ISRO".getBytes()
-        );
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.ttlDays = ttlDays;
+        // The parser is immutable and thread-safe, so one instance serves every request
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = cacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheSize)
+                        .expireAfter(new UntilTokenExpiry())
+                        .build()
+                : null;
     }
 
     /**
@@ -41,21 +63,42 @@ public class JwtService {
     }
 
     /**
-     * Validate and parse JWT token
+     * Verify a token, skipping the signature check when it was verified before
      * @param token - JWT token string
-     * @return subject (user ID) if valid, null otherwise
+     * @return subject and expiry if valid, null otherwise
      */
-    public String validate(String token) {
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        if (verifiedTokens != null) {
+            VerifiedToken cached = verifiedTokens.getIfPresent(token);
+            if (cached != null) return cached;
+        }
+
+        VerifiedToken verified;
         try {
-            return Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getSubject();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            verified = new VerifiedToken(
+                    claims.getSubject(),
+                    expiration != null ? expiration.toInstant() : Instant.now().plusSeconds(getExpirationSeconds())
+            );
         } catch (Exception e) {
             return null;
         }
+
+        if (verifiedTokens != null) verifiedTokens.put(token, verified);
+        return verified;
+    }
+
+    /**
+     * Validate and parse JWT token
+     * @param token - JWT token string
+     * @return subject (user ID) if valid, null otherwise
+     */
+    public String validate(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.subject() : null;
     }
 
     /**
@@ -64,17 +107,8 @@ public class JwtService {
      * @return true if expired, false otherwise
      */
     public boolean isExpired(String token) {
-        try {
-            Date expiration = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        VerifiedToken verified = verify(token);
+        return verified == null || verified.expiresAt().isBefore(Instant.now());
     }
 
     /**
@@ -84,4 +118,21 @@ public class JwtService {
     public long getExpirationSeconds() {
         return ttlDays * 24 * 60 * 60;
     }
-}
\ No newline at end of file
+
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import com.example.navic.models.SOSLocationPoint;
+import com.example.navic.repositories.SOSLocationPointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only store of sender/responder positions, kept out of the alert
+ * document in the sos_location_points time-series collection.
+ */
+@Service
+public class LocationTrailService {
+    private static final Logger log = LoggerFactory.getLogger(LocationTrailService.class);
+
+    @Autowired
+    private SOSLocationPointRepository locationPointRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ReentrantLock collectionLock = new ReentrantLock();
+    private volatile boolean collectionReady;
+
+    public void record(String alertId, String party, double lat, double lng, double accuracy, String source) {
+        ensureCollection();
+        locationPointRepository.insert(new SOSLocationPoint(alertId, party, lat, lng, accuracy, source));
+    }
+
+    public List<SOSLocationPoint> getTrail(String alertId, String party, Instant from, Instant to) {
+        if (party == null) {
+            return locationPointRepository.findByAlertIdAndTimestampBetweenOrderByTimestampAsc(alertId, from, to);
+        }
+        return locationPointRepository.findByAlertIdAndPartyAndTimestampBetweenOrderByTimestampAsc(alertId, party, from, to);
+    }
+
+    /**
+     * Most recent points for one party, oldest first, in the shape the alert used to embed.
+     */
+    public List<SOSAlert.LocationUpdate> getRecentTrail(String alertId, String party) {
+        List<SOSAlert.LocationUpdate> trail = new ArrayList<>();
+        for (SOSLocationPoint point : locationPointRepository.findTop500ByAlertIdAndPartyOrderByTimestampDesc(alertId, party)) {
+            trail.add(point.toLocationUpdate());
+        }
+        Collections.reverse(trail);
+        return trail;
+    }
+
+    // Inserting into a missing collection would silently create a regular one,
+    // so the time-series collection is created before the first write.
+    private void ensureCollection() {
+        if (collectionReady) return;
+
+        collectionLock.lock();
+        try {
+            if (collectionReady) return;
+            if (!mongoTemplate.collectionExists(SOSLocationPoint.class)) {
+                try {
+                    mongoTemplate.createCollection(SOSLocationPoint.class);
+                } catch (RuntimeException e) {
+                    // Another node may have created it first
+                    log.debug("sos_location_points creation skipped: {}", e.getMessage());
+                }
+            }
+            collectionReady = true;
+        } finally {
+            collectionLock.unlock();
+        }
+    }
+}
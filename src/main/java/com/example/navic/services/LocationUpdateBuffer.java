@@ -0,0 +1,127 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind stage for user location pings. Pings are coalesced per user
+ * (last one wins) and flushed as a single unordered bulk write of $set updates.
+ */
+@Component
+public class LocationUpdateBuffer {
+    private static final Logger log = LoggerFactory.getLogger(LocationUpdateBuffer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final UserCache userCache;
+    private final ConcurrentHashMap<String, PendingLocation> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer flushLag;
+    private final Timer flushDuration;
+
+    record PendingLocation(double latitude, double longitude, Instant receivedAt) {}
+
+    public LocationUpdateBuffer(MongoTemplate mongoTemplate, UserCache userCache, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.userCache = userCache;
+        this.flushLag = Timer.builder("navic.location.flush.lag")
+                .description("Time from a location ping being accepted to it being written to Mongo")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.flushDuration = Timer.builder("navic.location.flush.duration")
+                .description("Duration of one location bulk write")
+                .register(meterRegistry);
+        Gauge.builder("navic.location.pending", pending, Map::size)
+                .description("Users with a location ping waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    public void submit(String userId, double latitude, double longitude) {
+        pending.put(userId, new PendingLocation(latitude, longitude, Instant.now()));
+    }
+
+    /**
+     * The user's latest ping not yet written to Mongo, or null.
+     */
+    PendingLocation pending(String userId) {
+        return pending.get(userId);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${navic.location.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            List<Map.Entry<String, PendingLocation>> batch = new ArrayList<>(pending.size());
+            for (String userId : pending.keySet()) {
+                PendingLocation location = pending.remove(userId);
+                if (location != null) batch.add(Map.entry(userId, location));
+            }
+            if (batch.isEmpty()) return;
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            for (Map.Entry<String, PendingLocation> entry : batch) {
+                PendingLocation location = entry.getValue();
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(entry.getKey())),
+                        new Update()
+                                .set("latitude", location.latitude())
+                                .set("longitude", location.longitude())
+                                .set("location", new GeoJsonPoint(location.longitude(), location.latitude()))
+                                .set("lastLocationUpdate", location.receivedAt())
+                                .set("lastActiveAt", location.receivedAt())
+                                .set("updatedAt", location.receivedAt())
+                );
+            }
+
+            try {
+                flushDuration.record(bulk::execute);
+            } catch (RuntimeException e) {
+                // Put the batch back unless a newer ping has arrived meanwhile
+                batch.forEach(entry -> pending.putIfAbsent(entry.getKey(), entry.getValue()));
+                log.warn("Location flush of {} users failed, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+
+            // Only now does Mongo have the new location, so a reload cannot cache the old one
+            userCache.invalidateAll(batch.stream().map(Map.Entry::getKey).toList());
+
+            Instant flushedAt = Instant.now();
+            for (Map.Entry<String, PendingLocation> entry : batch) {
+                flushLag.record(Duration.between(entry.getValue().receivedAt(), flushedAt));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SOS images and audio, kept in GridFS and referenced from the alert by
+ * SOSAlert.MediaRef. Uploads are streamed into GridFS chunk by chunk and
+ * downloads can start at any offset, so neither side holds a whole file
+ * in memory.
+ *
+ * Media sent inline with an alert is moved into GridFS by the offload pool,
+ * so the creating request never decodes, uploads or stores anything itself.
+ * Inline media over the size limit, or sent while the pool's queue is full,
+ * is refused and the client is told to upload it instead. A move that fails
+ * on a pool thread is parked in pending_media and retried by
+ * sweepPendingMedia; the size limit keeps it within one document.
+ */
+@Service
+public class MediaStore {
+    private static final Logger log = LoggerFactory.getLogger(MediaStore.class);
+
+    public static final String IMAGE = "IMAGE";
+    public static final String AUDIO = "AUDIO";
+
+    static final String PENDING_MEDIA = "pending_media";
+    static final String OCTET_STREAM = "application/octet-stream";
+
+    private record InlineMedia(String alertId, String uploadedBy, String filename, String contentType, String data) {
+        Document toDocument() {
+            return new Document("alertId", alertId)
+                    .append("uploadedBy", uploadedBy)
+                    .append("filename", filename)
+                    .append("contentType", contentType)
+                    .append("data", data)
+                    .append("createdAt", Instant.now());
+        }
+
+        static InlineMedia of(Document document) {
+            return new InlineMedia(document.getString("alertId"), document.getString("uploadedBy"),
+                    document.getString("filename"), document.getString("contentType"), document.getString("data"));
+        }
+    }
+
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final ThreadPoolExecutor offloadExecutor;
+    private final Duration sweepLease;
+    private final long inlineMaxBytes;
+
+    public MediaStore(
+            @Value("${navic.media.offload-threads:2}") int threads,
+            @Value("${navic.media.offload-queue-capacity:100}") int queueCapacity,
+            @Value("${navic.media.sweep-lease-seconds:120}") long sweepLeaseSeconds,
+            @Value("${navic.media.inline-max-bytes:8388608}") long inlineMaxBytes
+    ) {
+        this.sweepLease = Duration.ofSeconds(sweepLeaseSeconds);
+        this.inlineMaxBytes = inlineMaxBytes;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.offloadExecutor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-offload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Store an upload for an alert the uploader is party to (sender or primary
+     * responder) and attach the reference. Returns null if they are not.
+     */
+    public SOSAlert.MediaRef upload(String alertId, String uploaderId, InputStream content,
+                                    String filename, String contentType, long length) throws IOException {
+        Query party = Query.query(Criteria.where("_id").is(alertId).orOperator(
+                Criteria.where("senderId").is(uploaderId),
+                Criteria.where("primaryResponderId").is(uploaderId)));
+        if (!mongoTemplate.exists(party, SOSAlert.class)) return null;
+
+        try (content) {
+            return store(alertId, uploaderId, content, filename, contentType, length);
+        }
+    }
+
+    public GridFSFile find(String mediaId) {
+        if (!ObjectId.isValid(mediaId)) return null;
+        return gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(new ObjectId(mediaId))));
+    }
+
+    /**
+     * Whether the user may download the file: the alert's sender, its
+     * primary responder or one of the rescuers it was sent to.
+     */
+    public boolean canView(GridFSFile file, String userId) {
+        String alertId = file.getMetadata() != null ? file.getMetadata().getString("alertId") : null;
+        if (alertId == null || userId == null) return false;
+        Query party = Query.query(Criteria.where("_id").is(alertId).orOperator(
+                Criteria.where("senderId").is(userId),
+                Criteria.where("primaryResponderId").is(userId),
+                Criteria.where("notifiedUserIds").is(userId)));
+        return mongoTemplate.exists(party, SOSAlert.class);
+    }
+
+    /**
+     * The type to store and serve media as. Only images and audio keep their
+     * declared type; anything else, or anything that does not parse, is
+     * application/octet-stream. SVG is left out, as it can carry script.
+     */
+    public static String safeContentType(String declared) {
+        if (declared == null) return OCTET_STREAM;
+        try {
+            MimeType type = MimeTypeUtils.parseMimeType(declared);
+            boolean media = ("image".equals(type.getType()) && !type.getSubtype().contains("svg"))
+                    || "audio".equals(type.getType());
+            return media && !type.isWildcardSubtype() ? type.getType() + "/" + type.getSubtype() : OCTET_STREAM;
+        } catch (InvalidMimeTypeException e) {
+            return OCTET_STREAM;
+        }
+    }
+
+    public InputStream open(GridFSFile file) throws IOException {
+        return gridFsTemplate.getResource(file).getInputStream();
+    }
+
+    /**
+     * Queue base64 images and audio sent inline with POST /api/sos/create for
+     * the move into GridFS, after the alert has been saved and handed to
+     * dispatch. Returns why the media was refused, or null if it was queued
+     * or there was none.
+     */
+    public String offloadInline(String alertId, String senderId, List<String> images, String audioMessage) {
+        List<InlineMedia> pending = new ArrayList<>();
+        long size = 0;
+        if (images != null) {
+            for (int i = 0; i < images.size(); i++) {
+                if (images.get(i) == null || images.get(i).isBlank()) continue;
+                pending.add(new InlineMedia(alertId, senderId, "image-" + i, "image/jpeg", images.get(i)));
+                size += images.get(i).length();
+            }
+        }
+        if (audioMessage != null && !audioMessage.isBlank()) {
+            pending.add(new InlineMedia(alertId, senderId, "audio", "audio/mpeg", audioMessage));
+            size += audioMessage.length();
+        }
+        if (pending.isEmpty()) return null;
+
+        String upload = "; upload it to /api/sos/" + alertId + "/media";
+        if (size > inlineMaxBytes) {
+            log.warn("Refused {} bytes of inline media on alert {}", size, alertId);
+            return "Inline media is over " + inlineMaxBytes / 1024 + " KB" + upload;
+        }
+
+        try {
+            offloadExecutor.execute(() -> {
+                for (InlineMedia media : pending) {
+                    if (!offload(media)) park(media);
+                }
+            });
+            return null;
+        } catch (RejectedExecutionException e) {
+            log.warn("Media offload queue full, refused inline media on alert {}", alertId);
+            return "Media could not be queued" + upload;
+        }
+    }
+
+    private void park(InlineMedia media) {
+        try {
+            mongoTemplate.insert(media.toDocument(), PENDING_MEDIA);
+        } catch (RuntimeException e) {
+            log.error("Could not park inline media {} on alert {}: {}", media.filename(), media.alertId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Hand parked inline media to the offload pool while its queue has room.
+     * Each entry is leased first, so two nodes never move the same one; an
+     * entry whose move failed is retried when the lease runs out.
+     */
+    @Scheduled(fixedDelayString = "${navic.media.sweep-interval-ms:5000}")
+    public void sweepPendingMedia() {
+        while (offloadExecutor.getQueue().remainingCapacity() > 0) {
+            Instant now = Instant.now();
+            Document claimed = mongoTemplate.findAndModify(
+                    Query.query(new Criteria().orOperator(
+                            Criteria.where("lockedUntil").is(null),
+                            Criteria.where("lockedUntil").lt(now))),
+                    new Update().set("lockedUntil", now.plus(sweepLease)),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Document.class, PENDING_MEDIA);
+            if (claimed == null) return;
+
+            Object id = claimed.get("_id");
+            try {
+                offloadExecutor.execute(() -> {
+                    if (offload(InlineMedia.of(claimed))) {
+                        mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), PENDING_MEDIA);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                        new Update().unset("lockedUntil"), PENDING_MEDIA);
+                return;
+            }
+        }
+    }
+
+    // False if the media could not be stored and should be tried again
+    private boolean offload(InlineMedia media) {
+        String contentType = media.contentType();
+        String data = media.data();
+        // Accept data URLs ("data:image/png;base64,...") as well as bare base64
+        if (data.startsWith("data:") && data.indexOf(',') > 0) {
+            String header = data.substring(5, data.indexOf(','));
+            if (!header.isBlank() && !header.startsWith(";")) contentType = header.split(";")[0];
+            data = data.substring(data.indexOf(',') + 1);
+        }
+
+        try {
+            byte[] bytes = Base64.getMimeDecoder().decode(data);
+            store(media.alertId(), media.uploadedBy(), new ByteArrayInputStream(bytes), media.filename(), contentType, bytes.length);
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping undecodable inline media {} on alert {}", media.filename(), media.alertId());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Could not offload inline media {} on alert {}: {}", media.filename(), media.alertId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private SOSAlert.MediaRef store(String alertId, String uploaderId, InputStream content,
+                                    String filename, String declaredType, long length) {
+        String contentType = safeContentType(declaredType);
+        String kind = contentType != null && contentType.startsWith("audio/") ? AUDIO : IMAGE;
+        Document metadata = new Document("alertId", alertId)
+                .append("uploadedBy", uploaderId)
+                .append("kind", kind);
+        ObjectId id = gridFsTemplate.store(content, filename, contentType, metadata);
+
+        SOSAlert.MediaRef ref = new SOSAlert.MediaRef(id.toHexString(), kind, contentType, length, uploaderId);
+        SOSAlert alert = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(alertId)),
+                new Update().push("media", ref).set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true), SOSAlert.class);
+        if (alert != null) {
+            applicationEventPublisher.publishEvent(new ActiveAlertRegistry.AlertUpdated(alert));
+        }
+        return ref;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        offloadExecutor.shutdown();
+        offloadExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.navic.services;
+
+import com.example.navic.dto.SOSResponse;
+import com.example.navic.models.SOSLocationPoint;
+import com.example.navic.repositories.ReactiveSOSAlertRepository;
+import com.example.navic.repositories.ReactiveSOSLocationPointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Read side of SOSService for event-loop nodes. Results are streamed as
+ * they come off the cursor rather than collected into lists.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSOSService {
+
+    @Autowired
+    private ReactiveSOSAlertRepository sosAlertRepository;
+
+    @Autowired
+    private ReactiveSOSLocationPointRepository locationPointRepository;
+
+    public Flux<SOSResponse> getAlertsBySender(String senderId) {
+        return sosAlertRepository.findBySenderIdOrderByCreatedAtDesc(senderId);
+    }
+
+    public Flux<SOSResponse> getPendingAlertsForUser(String userId) {
+        return sosAlertRepository.findPendingAlertsForUser(userId);
+    }
+
+    public Flux<SOSResponse> getNearbyActiveAlerts(double lat, double lng, double radiusKm) {
+        double radiusMeters = radiusKm * 1000;
+        return sosAlertRepository.findNearbyActiveAlerts(lng, lat, radiusMeters);
+    }
+
+    public Flux<SOSLocationPoint> getTrail(String alertId, String party, Instant from, Instant to) {
+        if (party == null) {
+            return locationPointRepository.findByAlertIdAndTimestampBetweenOrderByTimestampAsc(alertId, from, to);
+        }
+        return locationPointRepository.findByAlertIdAndPartyAndTimestampBetweenOrderByTimestampAsc(alertId, party, from, to);
+    }
+}
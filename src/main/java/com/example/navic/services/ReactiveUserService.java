@@ -0,0 +1,33 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import com.example.navic.repositories.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Rescuer lookup from UserService for event-loop nodes.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private RescuerLocationIndex rescuerLocationIndex;
+
+    /**
+     * Same lookup as UserService.findNearbyRescuers; the Mongo fallback streams off the cursor.
+     */
+    public Flux<User> streamNearbyRescuers(double latitude, double longitude, double radiusKm, String excludeUserId) {
+        if (rescuerLocationIndex.isReady()) {
+            return Flux.fromIterable(rescuerLocationIndex.findWithinRadius(latitude, longitude, radiusKm, excludeUserId))
+                    .map(match -> match.rescuer().toUser());
+        }
+        return userRepository.findNearbyAvailableRescuers(longitude, latitude, radiusKm * 1000, excludeUserId);
+    }
+}
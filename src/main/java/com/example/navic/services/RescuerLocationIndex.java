@@ -0,0 +1,343 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import com.example.navic.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Resident grid index of rescuers that are available and active. Rescuers
+ * with no location yet are held aside until their first ping places them.
+ *
+ * Writes on this node apply at once. Changes made through other nodes show
+ * up at the next resync, which reloads the available rescuers from Mongo
+ * and corrects every entry not written here since it started. Of two
+ * positions, the one reported later wins.
+ */
+@Component
+public class RescuerLocationIndex {
+    private static final Logger log = LoggerFactory.getLogger(RescuerLocationIndex.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final GeoGrid grid;
+    private final boolean rebuildOnStartup;
+
+    private final ConcurrentHashMap<String, IndexedRescuer> rescuers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, IndexedRescuer> unlocated = new ConcurrentHashMap<>();
+
+    // When each user was last written on this node, so a resync does not undo a newer local write
+    private final ConcurrentHashMap<String, Instant> written = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public RescuerLocationIndex(
+            @Value("${navic.rescuer-index.cell-size-deg:0.05}") double cellSizeDeg,
+            @Value("${navic.rescuer-index.rebuild-on-startup:true}") boolean rebuildOnStartup
+    ) {
+        this.grid = new GeoGrid(cellSizeDeg);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public record IndexedRescuer(
+            String userId,
+            String username,
+            String fullName,
+            String phone,
+            double latitude,
+            double longitude,
+            double rescueRadiusKm,
+            long cell,
+            Instant locatedAt
+    ) {
+        IndexedRescuer at(double lat, double lng, long cell, Instant locatedAt) {
+            return new IndexedRescuer(userId, username, fullName, phone, lat, lng, rescueRadiusKm, cell, locatedAt);
+        }
+
+        public User toUser() {
+            User user = new User();
+            user.setId(userId);
+            user.setUsername(username);
+            user.setFullName(fullName);
+            user.setPhone(phone);
+            user.setLatitude(latitude);
+            user.setLongitude(longitude);
+            user.setLocation(new GeoJsonPoint(longitude, latitude));
+            user.setRescueRadiusKm(rescueRadiusKm);
+            user.setAvailableForRescue(true);
+            user.setActive(true);
+            return user;
+        }
+    }
+
+    public record Match(IndexedRescuer rescuer, double distanceKm) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) return;
+
+        Thread loader = new Thread(() -> {
+            try (Stream<User> users = userRepository.streamAvailableRescuers()) {
+                rebuild(users);
+                log.info("Rescuer index rebuilt with {} rescuers", rescuers.size());
+            } catch (Exception e) {
+                log.warn("Rescuer index rebuild failed, falling back to Mongo geo queries: {}", e.getMessage());
+            }
+        }, "rescuer-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public void rebuild(Stream<User> users) {
+        writeLock.lock();
+        try {
+            ready = false;
+            rescuers.clear();
+            cells.clear();
+            unlocated.clear();
+            written.clear();
+            users.forEach(this::index);
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reload the available rescuers from Mongo and correct whatever has
+     * drifted. Does nothing until the startup rebuild has completed.
+     */
+    @Scheduled(fixedDelayString = "${navic.rescuer-index.resync-interval-ms:30000}")
+    public void resync() {
+        if (!ready) return;
+
+        Instant started = Instant.now();
+        List<User> available;
+        try (Stream<User> users = userRepository.streamAvailableRescuers()) {
+            available = users.toList();
+        } catch (RuntimeException e) {
+            log.warn("Rescuer index resync failed: {}", e.getMessage());
+            return;
+        }
+        resync(available, started);
+    }
+
+    void resync(List<User> available, Instant started) {
+        int corrected = 0;
+        writeLock.lock();
+        try {
+            Set<String> seen = new HashSet<>(available.size());
+            for (User user : available) {
+                seen.add(user.getId());
+                if (writtenSince(user.getId(), started)) continue;
+
+                IndexedRescuer current = rescuers.get(user.getId());
+                if (current != null && isLater(current.locatedAt(), user.getLastLocationUpdate())) {
+                    // A ping this node has seen is not in Mongo yet
+                    index(user, current.latitude(), current.longitude(), current.locatedAt());
+                } else {
+                    if (current == null || current.latitude() != user.getLatitude()
+                            || current.longitude() != user.getLongitude()) {
+                        corrected++;
+                    }
+                    index(user);
+                }
+            }
+
+            for (String userId : List.copyOf(rescuers.keySet())) {
+                if (!seen.contains(userId) && !writtenSince(userId, started)) {
+                    unindex(userId);
+                    corrected++;
+                }
+            }
+            for (String userId : List.copyOf(unlocated.keySet())) {
+                if (!seen.contains(userId) && !writtenSince(userId, started)) unlocated.remove(userId);
+            }
+            written.values().removeIf(at -> at.isBefore(started));
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (corrected > 0) log.info("Rescuer index corrected {} entries from Mongo", corrected);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return rescuers.size();
+    }
+
+    /**
+     * Add, move or drop a user depending on whether they can currently be dispatched.
+     */
+    public void upsert(User user) {
+        if (user == null || user.getId() == null) return;
+        writeLock.lock();
+        try {
+            written.put(user.getId(), Instant.now());
+            index(user);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Move a rescuer that is already indexed, or place one that was waiting
+     * for a location. Other users stay out.
+     */
+    public void moveIfPresent(String userId, double lat, double lng) {
+        writeLock.lock();
+        try {
+            Instant now = Instant.now();
+            IndexedRescuer previous = rescuers.get(userId);
+            if (previous == null) previous = unlocated.remove(userId);
+            if (previous == null) return;
+
+            written.put(userId, now);
+            long cell = grid.cellOf(lat, lng);
+            relink(userId, rescuers.get(userId), cell);
+            rescuers.put(userId, previous.at(lat, lng, cell, now));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String userId) {
+        writeLock.lock();
+        try {
+            written.put(userId, Instant.now());
+            unindex(userId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rescuers within radiusKm of the point, nearest first.
+     */
+    public List<Match> findWithinRadius(double lat, double lng, double radiusKm, String excludeUserId) {
+        List<IndexedRescuer> candidates = new ArrayList<>();
+
+        grid.forEachCellWithin(lat, lng, radiusKm, cells.keySet(), cell -> {
+            Set<String> members = cells.get(cell);
+            if (members == null) return;
+
+            for (String userId : members) {
+                if (userId.equals(excludeUserId)) continue;
+                IndexedRescuer rescuer = rescuers.get(userId);
+                if (rescuer != null && rescuer.cell() == cell) candidates.add(rescuer);
+            }
+        });
+
+        // The cells cover the circle's bounding box; GeoMath screens out the corners before any haversine
+        int count = candidates.size();
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = candidates.get(i).latitude();
+            lngs[i] = candidates.get(i).longitude();
+        }
+        int[] hits = new int[count];
+        double[] distances = new double[count];
+        int found = GeoMath.withinRadius(lat, lng, radiusKm, lats, lngs, count, new double[count], hits, distances);
+
+        List<Match> matches = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            matches.add(new Match(candidates.get(hits[i]), distances[i]));
+        }
+
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches;
+    }
+
+    int cellCount() {
+        return cells.size();
+    }
+
+    // Caller holds writeLock
+    private void index(User user) {
+        if (!user.isAvailableForRescue() || !user.isActive()) {
+            unindex(user.getId());
+            return;
+        }
+        if (user.getLocation() == null) {
+            unindex(user.getId());
+            unlocated.put(user.getId(), new IndexedRescuer(
+                    user.getId(), user.getUsername(), user.getFullName(), user.getPhone(),
+                    Double.NaN, Double.NaN, user.getRescueRadiusKm(), -1, null));
+            return;
+        }
+        index(user, user.getLatitude(), user.getLongitude(), user.getLastLocationUpdate());
+    }
+
+    // Caller holds writeLock
+    private void index(User user, double lat, double lng, Instant locatedAt) {
+        IndexedRescuer entry = new IndexedRescuer(
+                user.getId(),
+                user.getUsername(),
+                user.getFullName(),
+                user.getPhone(),
+                lat,
+                lng,
+                user.getRescueRadiusKm(),
+                grid.cellOf(lat, lng),
+                locatedAt
+        );
+        unlocated.remove(user.getId());
+        relink(user.getId(), rescuers.get(user.getId()), entry.cell());
+        rescuers.put(user.getId(), entry);
+    }
+
+    // Caller holds writeLock
+    private void unindex(String userId) {
+        unlocated.remove(userId);
+        IndexedRescuer previous = rescuers.remove(userId);
+        if (previous != null) unlink(userId, previous.cell());
+    }
+
+    // Caller holds writeLock. Readers may briefly see a user in two cells; findWithinRadius checks the entry's cell
+    private void relink(String userId, IndexedRescuer previous, long newCell) {
+        if (previous != null && previous.cell() == newCell) return;
+        cells.computeIfAbsent(newCell, k -> ConcurrentHashMap.newKeySet()).add(userId);
+        if (previous != null) unlink(userId, previous.cell());
+    }
+
+    // Empty cells are dropped so the map only holds cells with rescuers in them
+    private void unlink(String userId, long cell) {
+        cells.computeIfPresent(cell, (k, members) -> {
+            members.remove(userId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private boolean writtenSince(String userId, Instant started) {
+        Instant at = written.get(userId);
+        return at != null && !at.isBefore(started);
+    }
+
+    private static boolean isLater(Instant local, Instant stored) {
+        return local != null && (stored == null || local.isAfter(stored));
+    }
+}
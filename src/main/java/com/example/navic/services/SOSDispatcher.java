@@ -0,0 +1,192 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker pool that drains the dispatch outbox embedded in each SOSAlert.
+ * New alerts are handed over in-process; anything the bounded queue cannot
+ * take, anything that failed, and anything left over from a previous run
+ * is picked up again by the recovery poll.
+ *
+ * With spring.threads.virtual.enabled on a Java 21 runtime the workers are
+ * virtual threads, so many more dispatches can wait on Mongo at once; the
+ * bounded queue still applies back-pressure.
+ */
+@Profile("!reactive")
+@Component
+public class SOSDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(SOSDispatcher.class);
+
+    @Autowired
+    private SOSService sosService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final int recoveryBatchSize;
+
+    public record AlertCreated(String alertId) {}
+
+    public SOSDispatcher(
+            @Value("${navic.dispatch.workers:8}") int workers,
+            @Value("${navic.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${navic.dispatch.max-attempts:5}") int maxAttempts,
+            @Value("${navic.dispatch.lease-seconds:30}") long leaseSeconds,
+            @Value("${navic.dispatch.recovery-batch-size:200}") int recoveryBatchSize,
+            @Value("${navic.dispatch.virtual-workers:256}") int virtualWorkers,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        ThreadFactory threadFactory;
+        if (virtualThreads && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            threadFactory = new VirtualThreadTaskExecutor("sos-dispatch-").getVirtualThreadFactory();
+            workers = virtualWorkers;
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "sos-dispatch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.recoveryBatchSize = recoveryBatchSize;
+    }
+
+    @EventListener
+    public void onAlertCreated(AlertCreated event) {
+        submit(event.alertId());
+    }
+
+    public boolean submit(String alertId) {
+        try {
+            executor.execute(() -> process(alertId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Left in the outbox; the recovery poll will retry once the queue drains
+            log.debug("Dispatch queue full, deferring alert {}", alertId);
+            return false;
+        }
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Scheduled(fixedDelayString = "${navic.dispatch.recovery-interval-ms:5000}")
+    public void recoverPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) return;
+
+        try {
+            Instant now = Instant.now();
+            Query query = Query.query(Criteria.where("dispatch.status").is("PENDING")
+                            .and("dispatch.nextAttemptAt").lte(now)
+                            .orOperator(
+                                    Criteria.where("dispatch.lockedUntil").is(null),
+                                    Criteria.where("dispatch.lockedUntil").lt(now)))
+                    .limit(Math.min(capacity, recoveryBatchSize));
+            query.fields().include("_id");
+
+            List<SOSAlert> pending = mongoTemplate.find(query, SOSAlert.class);
+            for (SOSAlert alert : pending) {
+                if (!submit(alert.getId())) break;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dispatch recovery poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void process(String alertId) {
+        SOSAlert alert = claim(alertId);
+        if (alert == null) return;
+
+        try {
+            sosService.dispatch(alert);
+        } catch (RuntimeException e) {
+            log.warn("Dispatch of alert {} failed on attempt {}: {}", alertId, alert.getDispatch().getAttempts(), e.getMessage());
+            release(alert, e);
+        }
+    }
+
+    /**
+     * Take a lease on the outbox entry so two nodes never dispatch the same alert concurrently.
+     */
+    private SOSAlert claim(String alertId) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(alertId)
+                .and("dispatch.status").is("PENDING")
+                .orOperator(
+                        Criteria.where("dispatch.lockedUntil").is(null),
+                        Criteria.where("dispatch.lockedUntil").lt(now)));
+        Update update = new Update()
+                .set("dispatch.lockedUntil", now.plus(lease))
+                .inc("dispatch.attempts", 1);
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), SOSAlert.class);
+    }
+
+    private void release(SOSAlert alert, Exception cause) {
+        int attempts = alert.getDispatch().getAttempts();
+        long backoffSeconds = Math.min(60, 1L << Math.min(attempts, 6));
+
+        Update update = new Update()
+                .unset("dispatch.lockedUntil")
+                .set("dispatch.lastError", String.valueOf(cause.getMessage()))
+                .set("dispatch.nextAttemptAt", Instant.now().plusSeconds(backoffSeconds));
+        if (attempts >= maxAttempts) {
+            update.set("dispatch.status", "FAILED");
+            log.error("Giving up on dispatch of alert {} after {} attempts", alert.getId(), attempts);
+        }
+
+        try {
+            Query query = Query.query(Criteria.where("_id").is(alert.getId()).and("dispatch.status").is("PENDING"));
+            mongoTemplate.updateFirst(query, update, SOSAlert.class);
+        } catch (RuntimeException e) {
+            // The lease expires on its own and the recovery poll picks it up
+            log.warn("Could not release dispatch lease for alert {}: {}", alert.getId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.navic.services;
+
+import com.example.navic.dto.SOSEvent;
+import com.example.navic.models.SOSAlert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Pushes SOS lifecycle events to /user/{userId}/queue/sos.
+ */
+@Profile("!reactive")
+@Service
+public class SOSEventPublisher {
+    private static final Logger log = LoggerFactory.getLogger(SOSEventPublisher.class);
+
+    public static final String USER_QUEUE = "/queue/sos";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    public void publish(SOSEvent event, Collection<String> recipients) {
+        for (String userId : recipients) {
+            try {
+                messagingTemplate.convertAndSendToUser(userId, USER_QUEUE, event);
+            } catch (RuntimeException e) {
+                log.warn("Could not push {} for alert {} to {}: {}", event.type(), event.alertId(), userId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sender, primary responder and every notified rescuer.
+     */
+    public static Set<String> participants(SOSAlert alert) {
+        Set<String> recipients = new LinkedHashSet<>();
+        if (alert.getSenderId() != null) recipients.add(alert.getSenderId());
+        if (alert.getPrimaryResponderId() != null) recipients.add(alert.getPrimaryResponderId());
+        if (alert.getNotifiedUserIds() != null) recipients.addAll(alert.getNotifiedUserIds());
+        return recipients;
+    }
+}
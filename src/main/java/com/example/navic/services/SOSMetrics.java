@@ -0,0 +1,112 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the SOS pipeline. createAlert runs sender_lookup,
+ * duplicate_check and save on the request thread; the outbox dispatch runs
+ * rescuer_search and notify_save. All of them report as
+ * navic.sos.stage{stage=...}. Time to alerted and time to accepted are
+ * measured from the alert's own timestamps, so they include the time the
+ * alert waited in the outbox.
+ */
+@Component
+public class SOSMetrics {
+    public static final String SENDER_LOOKUP = "sender_lookup";
+    public static final String DUPLICATE_CHECK = "duplicate_check";
+    public static final String SAVE = "save";
+    public static final String RESCUER_SEARCH = "rescuer_search";
+    public static final String NOTIFY_SAVE = "notify_save";
+
+    private static final List<String> STAGES = List.of(SENDER_LOOKUP, DUPLICATE_CHECK, SAVE, RESCUER_SEARCH, NOTIFY_SAVE);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> stages = new HashMap<>();
+    private final DistributionSummary fanOut;
+    private final Timer timeToAlerted;
+    private final Timer timeToAccepted;
+
+    public SOSMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (String stage : STAGES) {
+            stages.put(stage, Timer.builder("navic.sos.stage")
+                    .description("Duration of one step of creating or dispatching an SOS alert")
+                    .tag("stage", stage)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.fanOut = DistributionSummary.builder("navic.sos.fanout")
+                .description("Rescuers notified in one dispatch round")
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50)
+                .register(meterRegistry);
+        this.timeToAlerted = Timer.builder("navic.sos.time.to.alerted")
+                .description("From an alert being created to the first rescuers being notified")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry);
+        this.timeToAccepted = Timer.builder("navic.sos.time.to.accepted")
+                .description("From an alert being created to a rescuer accepting it")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(30))
+                .register(meterRegistry);
+    }
+
+    public <T> T stage(String stage, Supplier<T> work) {
+        return stages.get(stage).record(work);
+    }
+
+    /**
+     * Counts a createAlert call by outcome: created, unknown_sender or duplicate.
+     */
+    public void created(String outcome) {
+        Counter.builder("navic.sos.created")
+                .description("createAlert calls by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void fanOut(int notified) {
+        fanOut.record(notified);
+    }
+
+    public void alerted(SOSAlert alert) {
+        sinceCreated(timeToAlerted, alert, alert.getAlertedAt());
+    }
+
+    public void accepted(SOSAlert alert) {
+        sinceCreated(timeToAccepted, alert, alert.getAcceptedAt());
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stops an accept or resolve timing, navic.sos.accept or navic.sos.resolve, tagged with its outcome.
+     */
+    public void stop(Timer.Sample sample, String name, String outcome) {
+        sample.stop(Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+
+    private static void sinceCreated(Timer timer, SOSAlert alert, Instant at) {
+        if (alert.getCreatedAt() == null || at == null) return;
+        Duration elapsed = Duration.between(alert.getCreatedAt(), at);
+        if (!elapsed.isNegative()) timer.record(elapsed);
+    }
+}
@@ -1,16 +1,44 @@
 package com.example.navic.services;
 
+import com.example.navic.dto.SOSEvent;
 import com.example.navic.dto.SOSRequest;
+import com.example.navic.dto.SOSResponse;
 import com.example.navic.models.SOSAlert;
+import com.example.navic.models.SOSLocationPoint;
 import com.example.navic.models.User;
 import com.example.navic.repositories.SOSAlertRepository;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+@Profile("!reactive")
 @Service
 public class SOSService {
 
@@ -20,15 +48,70 @@ public class SOSService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LocationTrailService locationTrailService;
+
+    @Autowired
+    private SOSEventPublisher eventPublisher;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private ActiveAlertRegistry activeAlerts;
+
+    @Autowired
+    private AlertDeadlineScheduler alertDeadlines;
+
+    @Autowired
+    private SOSMetrics metrics;
+
+    private static final List<String> TERMINAL_STATUSES = List.of("RESOLVED", "CANCELLED", "EXPIRED");
+    private static final List<String> AWAITING_RESPONSE = List.of("PENDING", "ALERTED");
+    private static final List<String> ACTIVE_STATUSES = ActiveAlertRegistry.ACTIVE_STATUSES;
+    private static final List<String> NEARBY_STATUSES = List.of("PENDING", "ALERTED", "ACCEPTED");
+
+    @Value("${navic.dispatch.target-rescuers:10}")
+    private int targetRescuers;
+
+    @Value("${navic.dispatch.max-notified:50}")
+    private int maxNotified;
+
+    @Value("${navic.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${navic.pagination.max-size:100}")
+    private int maxPageSize;
+
+    /**
+     * One page of alerts, newest first. nextCursor is null on the last page.
+     */
+    public record AlertPage(List<SOSResponse> alerts, String nextCursor) {}
+
+    /**
+     * Outcome of an accept: the accepted alert, or why it was refused
+     * (one of the ACCEPT_ constants).
+     */
+    public record Acceptance(SOSAlert alert, String rejection) {}
+
+    public static final String ACCEPT_NOT_FOUND = "NOT_FOUND";
+    public static final String ACCEPT_TAKEN = "TAKEN";
+    public static final String ACCEPT_CLOSED = "CLOSED";
+    public static final String ACCEPT_NOT_NOTIFIED = "NOT_NOTIFIED";
+
     public SOSAlert createAlert(SOSRequest request, String senderId) {
-        User sender = userService.getUserById(senderId);
-        if (sender == null) return null;
-
-        long activeCount = sosAlertRepository.countBySenderIdAndStatusIn(
-                senderId,
-                List.of("PENDING", "ALERTED", "ACCEPTED", "IN_PROGRESS")
-        );
-        if (activeCount > 0) {
+        User sender = metrics.stage(SOSMetrics.SENDER_LOOKUP, () -> userService.getUserById(senderId));
+        if (sender == null) {
+            metrics.created("unknown_sender");
+            return null;
+        }
+
+        // Saves a round trip for the common repeat tap; the sender_active index settles everything else
+        if (metrics.stage(SOSMetrics.DUPLICATE_CHECK, () -> activeAlerts.hasActiveAlert(senderId))) {
+            metrics.created("duplicate");
             return null;
         }
 
@@ -51,159 +134,482 @@ public class SOSService {
         alert.setDescription(request.description());
         alert.setCommunicationMode(request.communicationMode() != null ? request.communicationMode() : "INTERNET");
 
-        if (request.images() != null) alert.setImages(request.images());
-        alert.setAudioMessage(request.audioMessage());
-
         alert.addSenderLocation(request.latitude(), request.longitude(), request.accuracy(), "GPS");
+        alert.setDispatch(new SOSAlert.Dispatch());
+
+        SOSAlert savedAlert;
+        try {
+            savedAlert = metrics.stage(SOSMetrics.SAVE, () -> sosAlertRepository.insert(alert));
+        } catch (DuplicateKeyException e) {
+            // The sender already has an open alert, possibly created by a concurrent request
+            metrics.created("duplicate");
+            return null;
+        }
+        metrics.created("created");
+        written(savedAlert);
+        applicationEventPublisher.publishEvent(new SOSDispatcher.AlertCreated(savedAlert.getId()));
 
-        SOSAlert savedAlert = sosAlertRepository.save(alert);
+        return savedAlert;
+    }
 
-        userService.incrementSosCount(senderId);
+    /**
+     * Outbox work for a freshly created alert, run by SOSDispatcher after it
+     * has leased the entry: initial trail point, rescuer matching, responder
+     * attachment and the sender's SOS counter.
+     */
+    public void dispatch(SOSAlert alert) {
+        SOSAlert.LocationUpdate origin = alert.getLastSenderLocation();
+        if (origin != null && alert.getDispatch().getAttempts() == 1) {
+            locationTrailService.record(alert.getId(), SOSLocationPoint.SENDER,
+                    origin.getLatitude(), origin.getLongitude(), origin.getAccuracy(), origin.getSource());
+        }
 
-        notifyNearbyRescuers(savedAlert);
+        SOSAlert alerted = notifyNearbyRescuers(alert);
+        if (alerted == null) {
+            // Nobody nearby, or the alert was cancelled before dispatch ran
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(alert.getId())),
+                    completeDispatch(new Update()),
+                    SOSAlert.class);
+        }
 
-        return savedAlert;
+        userService.incrementSosCount(alert.getSenderId());
     }
 
-    private void notifyNearbyRescuers(SOSAlert alert) {
-        List<User> nearbyUsers = userService.findNearbyRescuers(
+    /**
+     * Notify up to navic.dispatch.target-rescuers of the nearest rescuers not
+     * notified yet, never more than navic.dispatch.max-notified per alert.
+     * Returns null if nobody new was found or the alert moved on meanwhile.
+     */
+    private SOSAlert notifyNearbyRescuers(SOSAlert alert) {
+        List<String> alreadyNotified = alert.getNotifiedUserIds() != null ? alert.getNotifiedUserIds() : List.of();
+        int k = Math.min(targetRescuers, maxNotified - alreadyNotified.size());
+        if (k <= 0) return null;
+
+        Set<String> exclude = new HashSet<>(alreadyNotified);
+        exclude.add(alert.getSenderId());
+        List<UserService.NearbyRescuer> nearbyUsers = metrics.stage(SOSMetrics.RESCUER_SEARCH, () -> userService.findNearestRescuers(
                 alert.getLatitude(),
                 alert.getLongitude(),
-                5.0,
-                alert.getSenderId()
-        );
-
-        if (!nearbyUsers.isEmpty()) {
-            for (User user : nearbyUsers) {
-                double distance = calculateDistance(
-                        alert.getLatitude(), alert.getLongitude(),
-                        user.getLatitude(), user.getLongitude()
-                );
-
-                SOSAlert.Responder responder = new SOSAlert.Responder(
-                        user.getId(),
-                        user.getFullName() != null ? user.getFullName() : user.getUsername(),
-                        user.getPhone(),
-                        distance
-                );
-                alert.addResponder(responder);
-            }
+                k,
+                exclude
+        ));
+        if (nearbyUsers.isEmpty()) return null;
+
+        List<SOSAlert.Responder> responders = new ArrayList<>(nearbyUsers.size());
+        for (UserService.NearbyRescuer nearby : nearbyUsers) {
+            User user = nearby.user();
+            responders.add(new SOSAlert.Responder(
+                    user.getId(),
+                    user.getFullName() != null ? user.getFullName() : user.getUsername(),
+                    user.getPhone(),
+                    nearby.distanceKm()
+            ));
+        }
 
-            alert.setStatus("ALERTED");
-            alert.setAlertedAt(Instant.now());
-            sosAlertRepository.save(alert);
+        // Matching the notified count seen keeps two concurrent rounds from both appending past the cap
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(alert.getId())
+                .and("status").in(AWAITING_RESPONSE)
+                .and("notifiedUserIds").size(alreadyNotified.size()));
+        Update update = new Update()
+                .set("status", "ALERTED")
+                .set("updatedAt", now)
+                .inc("notifiedCount", responders.size());
+        if (alert.getAlertedAt() == null) update.set("alertedAt", now);
+        update.push("responders").each(responders.toArray());
+        update.push("notifiedUserIds").each(responders.stream().map(SOSAlert.Responder::getUserId).toArray());
+
+        SOSAlert alerted = metrics.stage(SOSMetrics.NOTIFY_SAVE,
+                () -> mongoTemplate.findAndModify(query, completeDispatch(update), returnNew(), SOSAlert.class));
+        if (alerted != null) {
+            written(alerted);
+            metrics.fanOut(responders.size());
+            if (alreadyNotified.isEmpty()) metrics.alerted(alerted);
+            eventPublisher.publish(SOSEvent.of(SOSEvent.NEW_ALERT, alerted), responders.stream().map(SOSAlert.Responder::getUserId).toList());
+            if (alreadyNotified.isEmpty()) {
+                eventPublisher.publish(SOSEvent.of(SOSEvent.ALERTED, alerted), List.of(alerted.getSenderId()));
+            }
         }
+        return alerted;
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    private static Update completeDispatch(Update update) {
+        return update
+                .set("dispatch.status", "DONE")
+                .unset("dispatch.lockedUntil");
     }
 
-    public List<SOSAlert> getPendingAlertsForUser(String userId) {
+    public List<SOSResponse> getPendingAlertsForUser(String userId) {
+        if (activeAlerts.isReady()) {
+            return activeAlerts.awaitingResponseFrom(userId).stream().map(SOSResponse::fromEntity).toList();
+        }
         return sosAlertRepository.findPendingAlertsForUser(userId);
     }
 
-    public List<SOSAlert> getAlertsBySender(String senderId) {
-        return sosAlertRepository.findBySenderIdOrderByCreatedAtDesc(senderId);
+    public AlertPage getAlertsBySender(String senderId, String cursor, Integer limit) {
+        return page(Criteria.where("senderId").is(senderId), cursor, limit);
     }
 
-    public SOSAlert acceptAlert(String alertId, String responderId) {
-        SOSAlert alert = sosAlertRepository.findById(alertId).orElse(null);
-        User responder = userService.getUserById(responderId);
-
-        if (alert == null || responder == null) return null;
-        if (!List.of("PENDING", "ALERTED").contains(alert.getStatus())) return null;
+    /**
+     * Make responderId the primary responder in one conditional update, so
+     * of any number of rescuers accepting at once exactly one wins. A
+     * repeated accept by the winner succeeds again.
+     */
+    public Acceptance acceptAlert(String alertId, String responderId) {
+        Timer.Sample sample = metrics.start();
+        String outcome = "error";
+        try {
+            Acceptance acceptance = accept(alertId, responderId);
+            outcome = acceptance.rejection() != null ? acceptance.rejection() : "ACCEPTED";
+            return acceptance;
+        } finally {
+            metrics.stop(sample, "navic.sos.accept", outcome);
+        }
+    }
 
-        String responderName = responder.getFullName() != null ? responder.getFullName() : responder.getUsername();
-        alert.acceptByResponder(responderId, responderName);
+    private Acceptance accept(String alertId, String responderId) {
+        User responder = userService.getUserById(responderId);
+        if (responder == null) return new Acceptance(null, ACCEPT_NOT_NOTIFIED);
+
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(alertId)
+                .and("status").in(AWAITING_RESPONSE)
+                .and("notifiedUserIds").is(responderId));
+        Update update = new Update()
+                .set("status", "ACCEPTED")
+                .set("primaryResponderId", responderId)
+                .set("primaryResponderName", responder.getFullName() != null ? responder.getFullName() : responder.getUsername())
+                .set("acceptedAt", now)
+                .set("updatedAt", now)
+                .set("responders.$[r].status", "ACCEPTED")
+                .set("responders.$[r].respondedAt", now)
+                .filterArray(Criteria.where("r.userId").is(responderId));
+
+        SOSAlert accepted = mongoTemplate.findAndModify(query, update, returnNew(), SOSAlert.class);
+        if (accepted != null) {
+            written(accepted);
+            metrics.accepted(accepted);
+            eventPublisher.publish(SOSEvent.of(SOSEvent.ACCEPTED, accepted), SOSEventPublisher.participants(accepted));
+            return new Acceptance(accepted, null);
+        }
 
-        return sosAlertRepository.save(alert);
+        // Lost or refused. The registry usually already holds the winner's write; read Mongo only if it looks open
+        SOSAlert current = activeAlerts.get(alertId);
+        if (current == null || AWAITING_RESPONSE.contains(current.getStatus())) {
+            current = sosAlertRepository.findById(alertId).orElse(null);
+        }
+        if (current == null) return new Acceptance(null, ACCEPT_NOT_FOUND);
+        if (responderId.equals(current.getPrimaryResponderId())) return new Acceptance(current, null);
+        if (current.getPrimaryResponderId() != null) return new Acceptance(null, ACCEPT_TAKEN);
+        if (!AWAITING_RESPONSE.contains(current.getStatus())) return new Acceptance(null, ACCEPT_CLOSED);
+        return new Acceptance(null, ACCEPT_NOT_NOTIFIED);
     }
 
     public SOSAlert updateResponderStatus(String alertId, String responderId, String status) {
-        SOSAlert alert = sosAlertRepository.findById(alertId).orElse(null);
-        if (alert == null) return null;
+        // Only a rescuer on the alert may report on it
+        Query query = openAlert(alertId).addCriteria(new Criteria().orOperator(
+                Criteria.where("responders.userId").is(responderId),
+                Criteria.where("primaryResponderId").is(responderId)));
+        Update update = new Update()
+                .set("responders.$[r].status", status)
+                .filterArray(Criteria.where("r.userId").is(responderId))
+                .set("updatedAt", Instant.now());
 
         if ("ARRIVED".equals(status)) {
-            alert.setArrivedAt(Instant.now());
-            alert.setStatus("IN_PROGRESS");
+            update.set("arrivedAt", Instant.now());
+            update.set("status", "IN_PROGRESS");
         }
 
-        for (SOSAlert.Responder r : alert.getResponders()) {
-            if (r.getUserId().equals(responderId)) {
-                r.setStatus(status);
-                break;
-            }
-        }
-
-        return sosAlertRepository.save(alert);
+        return publishStatusChange(mongoTemplate.findAndModify(query, update, returnNew(), SOSAlert.class));
     }
 
     public SOSAlert resolveAlert(String alertId, String responderId, String notes, String resolutionType) {
-        SOSAlert alert = sosAlertRepository.findById(alertId).orElse(null);
-        if (alert == null) return null;
+        Timer.Sample sample = metrics.start();
+        String outcome = "error";
+        try {
+            SOSAlert resolved = resolve(alertId, responderId, notes, resolutionType);
+            outcome = resolved != null ? "RESOLVED" : "NOT_OPEN";
+            return resolved;
+        } finally {
+            metrics.stop(sample, "navic.sos.resolve", outcome);
+        }
+    }
 
-        alert.resolve(notes, resolutionType);
+    private SOSAlert resolve(String alertId, String responderId, String notes, String resolutionType) {
+        Date resolvedAt = new Date();
+
+        // responseTimeMinutes depends on acceptedAt, so it is computed by the server in a pipeline update
+        Document elapsedMinutes = new Document("$toInt", new Document("$floor", new Document("$divide", List.of(
+                new Document("$subtract", List.of(resolvedAt, "$acceptedAt")), 60000))));
+        Document fields = new Document("status", "RESOLVED")
+                .append("resolutionNotes", new Document("$literal", notes))
+                .append("resolutionType", new Document("$literal", resolutionType))
+                .append("resolvedAt", resolvedAt)
+                .append("updatedAt", resolvedAt)
+                // MongoTemplate bumps @Version on Update-based writes only
+                .append("version", new Document("$add", List.of(new Document("$ifNull", Arrays.asList("$version", 0L)), 1L)))
+                .append("responseTimeMinutes", new Document("$cond", List.of(
+                        new Document("$gt", Arrays.asList("$acceptedAt", null)),
+                        elapsedMinutes,
+                        "$responseTimeMinutes")));
+        AggregationOperation set = context -> new Document("$set", fields);
+
+        // Only the rescuer who accepted the alert may close it
+        Query query = openAlert(alertId).addCriteria(Criteria.where("primaryResponderId").is(responderId));
+        SOSAlert alert = mongoTemplate.findAndModify(
+                query, AggregationUpdate.from(List.of(set)), returnNew(), SOSAlert.class);
+        if (alert == null) return null;
 
         if (alert.getPrimaryResponderId() != null) {
             userService.incrementRescueCount(alert.getPrimaryResponderId());
         }
 
-        return sosAlertRepository.save(alert);
+        return publishStatusChange(alert);
     }
 
     public SOSAlert cancelAlert(String alertId, String senderId) {
-        SOSAlert alert = sosAlertRepository.findById(alertId).orElse(null);
-        if (alert == null || !alert.getSenderId().equals(senderId)) return null;
-        if (List.of("RESOLVED", "CANCELLED").contains(alert.getStatus())) return null;
+        Query query = openAlert(alertId).addCriteria(Criteria.where("senderId").is(senderId));
+        Update update = new Update()
+                .set("status", "CANCELLED")
+                .set("updatedAt", Instant.now());
 
-        alert.setStatus("CANCELLED");
-        alert.setUpdatedAt(Instant.now());
-        return sosAlertRepository.save(alert);
+        return publishStatusChange(mongoTemplate.findAndModify(query, update, returnNew(), SOSAlert.class));
     }
 
-    public SOSAlert updateSenderLocation(String alertId, String senderId, double lat, double lng, double accuracy, String source) {
-        SOSAlert alert = sosAlertRepository.findById(alertId).orElse(null);
-        if (alert == null || !alert.getSenderId().equals(senderId)) return null;
-        if (List.of("RESOLVED", "CANCELLED").contains(alert.getStatus())) return null;
+    public boolean updateSenderLocation(String alertId, String senderId, double lat, double lng, double accuracy, String source) {
+        Instant now = Instant.now();
+        Query query = openAlert(alertId).addCriteria(Criteria.where("senderId").is(senderId));
+        Update update = new Update()
+                .set("latitude", lat)
+                .set("longitude", lng)
+                .set("location", new GeoJsonPoint(lng, lat))
+                .set("accuracy", accuracy)
+                .set("lastSenderLocation", new SOSAlert.LocationUpdate(lat, lng, accuracy, source))
+                .set("updatedAt", now);
 
-        alert.addSenderLocation(lat, lng, accuracy, source);
-        return sosAlertRepository.save(alert);
+        SOSAlert alert = mongoTemplate.findAndModify(withParticipantsOnly(query), update, SOSAlert.class);
+        if (alert == null) return false;
+
+        activeAlerts.moveSender(alertId, lat, lng, accuracy, source, now);
+
+        locationTrailService.record(alertId, SOSLocationPoint.SENDER, lat, lng, accuracy, source);
+
+        Set<String> recipients = SOSEventPublisher.participants(alert);
+        recipients.remove(senderId);
+        eventPublisher.publish(SOSEvent.location(SOSEvent.SENDER_LOCATION, alertId, lat, lng), recipients);
+        return true;
+    }
+
+    public boolean updateResponderLocation(String alertId, String responderId, double lat, double lng, double accuracy, String source) {
+        Instant now = Instant.now();
+        Query query = openAlert(alertId).addCriteria(Criteria.where("primaryResponderId").is(responderId));
+        Update update = new Update()
+                .set("lastResponderLocation", new SOSAlert.LocationUpdate(lat, lng, accuracy, source))
+                .set("updatedAt", now);
+
+        SOSAlert alert = mongoTemplate.findAndModify(withParticipantsOnly(query), update, SOSAlert.class);
+        if (alert == null) return false;
+
+        activeAlerts.moveResponder(alertId, lat, lng, accuracy, source, now);
+
+        locationTrailService.record(alertId, SOSLocationPoint.RESPONDER, lat, lng, accuracy, source);
+
+        eventPublisher.publish(SOSEvent.location(SOSEvent.RESPONDER_LOCATION, alertId, lat, lng), List.of(alert.getSenderId()));
+        return true;
+    }
+
+    /**
+     * Acts on a deadline from AlertDeadlineScheduler. Each action re-checks the
+     * alert in its update, so a timer that is out of date does nothing.
+     */
+    @EventListener
+    public void onDeadlineReached(AlertDeadlineScheduler.DeadlineReached deadline) {
+        switch (deadline.kind()) {
+            case AlertDeadlineScheduler.EXPIRE -> expireAlert(deadline.alertId());
+            case AlertDeadlineScheduler.RENOTIFY -> renotifyAlert(deadline.alertId(), deadline.round());
+            case AlertDeadlineScheduler.REMIND -> remindResponder(deadline.alertId());
+            default -> { }
+        }
+    }
+
+    public SOSAlert expireAlert(String alertId) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(alertId)
+                .and("status").in(AWAITING_RESPONSE)
+                .and("expiresAt").lte(now));
+        Update update = new Update()
+                .set("status", "EXPIRED")
+                .set("updatedAt", now);
+
+        return publishStatusChange(mongoTemplate.findAndModify(query, update, returnNew(), SOSAlert.class));
     }
 
-    public SOSAlert updateResponderLocation(String alertId, double lat, double lng, double accuracy, String source) {
-        SOSAlert alert = sosAlertRepository.findById(alertId).orElse(null);
+    /**
+     * Nobody has accepted yet: widen the search to rescuers not notified so
+     * far, and if there are none push the alert to the notified ones again.
+     */
+    public SOSAlert renotifyAlert(String alertId, int round) {
+        // $in with null also matches alerts written before renotifyCount existed
+        Query query = Query.query(Criteria.where("_id").is(alertId)
+                .and("status").in(AWAITING_RESPONSE)
+                .and("renotifyCount").in(round == 0 ? Arrays.asList(0, null) : List.of(round)));
+        Update update = new Update()
+                .inc("renotifyCount", 1)
+                .set("updatedAt", Instant.now());
+
+        SOSAlert alert = mongoTemplate.findAndModify(query, update, returnNew(), SOSAlert.class);
         if (alert == null) return null;
 
-        alert.addResponderLocation(lat, lng, accuracy, source);
-        return sosAlertRepository.save(alert);
+        SOSAlert alerted = notifyNearbyRescuers(alert);
+        if (alerted != null) return alerted;
+        if ("ALERTED".equals(alert.getStatus())) {
+            eventPublisher.publish(SOSEvent.of(SOSEvent.NEW_ALERT, alert), alert.getNotifiedUserIds());
+        }
+        written(alert);
+        return alert;
+    }
+
+    public SOSAlert remindResponder(String alertId) {
+        Query query = Query.query(Criteria.where("_id").is(alertId)
+                .and("status").is("ACCEPTED")
+                .and("reminderSentAt").is(null));
+        Update update = new Update().set("reminderSentAt", Instant.now());
+
+        SOSAlert alert = mongoTemplate.findAndModify(query, update, returnNew(), SOSAlert.class);
+        if (alert == null) return null;
+
+        written(alert);
+        eventPublisher.publish(SOSEvent.of(SOSEvent.REMINDER, alert), List.of(alert.getPrimaryResponderId()));
+        return alert;
+    }
+
+    // Every alert document this service writes goes through here
+    private void written(SOSAlert alert) {
+        activeAlerts.apply(alert);
+        alertDeadlines.track(alert);
+    }
+
+    private SOSAlert publishStatusChange(SOSAlert alert) {
+        if (alert != null) {
+            written(alert);
+            eventPublisher.publish(SOSEvent.of(SOSEvent.STATUS_CHANGED, alert), SOSEventPublisher.participants(alert));
+        }
+        return alert;
     }
 
+    // Location pings only need to know who to push to, not the whole alert
+    private static Query withParticipantsOnly(Query query) {
+        query.fields().include("senderId", "primaryResponderId", "notifiedUserIds");
+        return query;
+    }
+
+    private static Query openAlert(String alertId) {
+        return Query.query(Criteria.where("_id").is(alertId).and("status").nin(TERMINAL_STATUSES));
+    }
+
+    private static FindAndModifyOptions returnNew() {
+        return FindAndModifyOptions.options().returnNew(true);
+    }
+
+    // Open alerts come from the registry; closed ones are only in Mongo
     public SOSAlert getAlertById(String alertId) {
+        SOSAlert alert = activeAlerts.get(alertId);
+        if (alert != null) return alert;
         return sosAlertRepository.findById(alertId).orElse(null);
     }
 
     public SOSAlert getAlertByCode(String alertCode) {
+        SOSAlert alert = activeAlerts.getByCode(alertCode);
+        if (alert != null) return alert;
         return sosAlertRepository.findByAlertCode(alertCode);
     }
 
-    public List<SOSAlert> getActiveAlerts() {
-        return sosAlertRepository.findActiveAlerts();
+    public AlertPage getActiveAlerts(String cursor, Integer limit) {
+        if (!activeAlerts.isReady()) {
+            return page(Criteria.where("status").in(ACTIVE_STATUSES), cursor, limit);
+        }
+
+        int size = pageSize(limit);
+        Instant createdAt = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            if (position == null) return null;
+            createdAt = Instant.ofEpochMilli(Long.parseLong(position[0]));
+            afterId = position[1];
+        }
+
+        List<SOSAlert> alerts = activeAlerts.page(createdAt, afterId, size + 1);
+        String nextCursor = null;
+        if (alerts.size() > size) {
+            alerts = alerts.subList(0, size);
+            SOSAlert last = alerts.get(size - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new AlertPage(alerts.stream().map(SOSResponse::fromEntity).toList(), nextCursor);
     }
 
-    public List<SOSAlert> getNearbyActiveAlerts(double lat, double lng, double radiusKm) {
+    public List<SOSResponse> getNearbyActiveAlerts(double lat, double lng, double radiusKm) {
+        if (activeAlerts.isReady()) {
+            return activeAlerts.near(lat, lng, radiusKm, NEARBY_STATUSES).stream()
+                    .map(match -> SOSResponse.fromEntity(match.alert()))
+                    .toList();
+        }
         double radiusMeters = radiusKm * 1000;
         return sosAlertRepository.findNearbyActiveAlerts(lng, lat, radiusMeters);
     }
 
-    public List<SOSAlert> getAlertsAcceptedByResponder(String responderId) {
-        return sosAlertRepository.findByPrimaryResponderIdOrderByCreatedAtDesc(responderId);
+    public AlertPage getAlertsAcceptedByResponder(String responderId, String cursor, Integer limit) {
+        return page(Criteria.where("primaryResponderId").is(responderId), cursor, limit);
+    }
+
+    /**
+     * Keyset page over (createdAt, _id) descending, served by the matching
+     * compound indexes on SOSAlert. Returns null if the cursor is not one we issued.
+     */
+    private AlertPage page(Criteria filter, String cursor, Integer limit) {
+        int size = pageSize(limit);
+
+        Criteria criteria = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            if (position == null) return null;
+            Instant createdAt = Instant.ofEpochMilli(Long.parseLong(position[0]));
+            criteria = new Criteria().andOperator(filter, new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt).and("_id").lt(new ObjectId(position[1]))));
+        }
+
+        Query query = new BasicQuery(new Document(), Document.parse(SOSResponse.LIST_FIELDS))
+                .addCriteria(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(size + 1);
+        List<SOSResponse> alerts = mongoTemplate.query(SOSAlert.class).as(SOSResponse.class).matching(query).all();
+        if (alerts.size() <= size) return new AlertPage(alerts, null);
+
+        alerts = alerts.subList(0, size);
+        SOSResponse last = alerts.get(size - 1);
+        return new AlertPage(alerts, encodeCursor(last.createdAt(), last.id()));
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private static String encodeCursor(Instant createdAt, String id) {
+        String position = createdAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            if (position.length != 2 || !position[1].matches("[0-9a-f]{24}")) return null;
+            Long.parseLong(position[0]);
+            return position;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
\ No newline at end of file
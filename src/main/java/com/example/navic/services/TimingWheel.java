@@ -0,0 +1,187 @@
+package com.example.navic.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by K. Level 0 has wheelSize slots of
+ * tickMillis each; every further level has slots as wide as the whole level
+ * below it and is added when a deadline first needs it. Scheduling and
+ * cancelling are O(1); advancing costs one slot per elapsed tick plus the
+ * timers that fire or move down a level.
+ *
+ * Timers fire at the first tick boundary at or after their deadline, so up
+ * to one tick late and never early. Not thread-safe; callers serialize access.
+ */
+final class TimingWheel<K, V> {
+
+    record Expired<K, V>(K key, V value, long deadline) {}
+
+    private static final class Timer<K, V> {
+        final K key;
+        final V value;
+        final long deadline;
+        Slot<K, V> slot;
+        Timer<K, V> prev;
+        Timer<K, V> next;
+
+        Timer(K key, V value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    // Doubly linked so a cancelled timer can be unlinked without a search
+    private static final class Slot<K, V> {
+        Timer<K, V> head;
+
+        void add(Timer<K, V> timer) {
+            timer.slot = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) head.prev = timer;
+            head = timer;
+        }
+
+        void remove(Timer<K, V> timer) {
+            if (timer.prev != null) timer.prev.next = timer.next;
+            else head = timer.next;
+            if (timer.next != null) timer.next.prev = timer.prev;
+            timer.slot = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        Timer<K, V> drain() {
+            Timer<K, V> drained = head;
+            head = null;
+            return drained;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Slot<K, V>[]> levels = new ArrayList<>();
+    private final List<Long> levelTicks = new ArrayList<>();
+    private final Map<K, Timer<K, V>> timers = new HashMap<>();
+    private final Slot<K, V> overdue = new Slot<>();
+
+    // Start of the current level 0 slot; everything before it has fired
+    private long currentTime;
+
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        addLevel();
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    /**
+     * Deadline of the timer under key, or -1 if there is none.
+     */
+    long deadlineOf(K key) {
+        Timer<K, V> timer = timers.get(key);
+        return timer != null ? timer.deadline : -1;
+    }
+
+    /**
+     * Schedule value under key, replacing any timer already held for it.
+     * A deadline that has already passed fires on the next advance.
+     */
+    void schedule(K key, V value, long deadline) {
+        cancel(key);
+        Timer<K, V> timer = new Timer<>(key, value, deadline);
+        timers.put(key, timer);
+        place(timer);
+    }
+
+    boolean cancel(K key) {
+        Timer<K, V> timer = timers.remove(key);
+        if (timer == null) return false;
+        timer.slot.remove(timer);
+        return true;
+    }
+
+    /**
+     * Move the wheel up to now and return every timer whose deadline has passed.
+     */
+    List<Expired<K, V>> advanceTo(long now) {
+        List<Expired<K, V>> expired = new ArrayList<>();
+        collect(overdue.drain(), expired);
+
+        while (currentTime + tickMillis <= now) {
+            Slot<K, V> finished = levels.get(0)[slotIndex(0, currentTime)];
+            currentTime += tickMillis;
+            collect(finished.drain(), expired);
+
+            // Crossing into a new slot on a higher level brings its timers down a level
+            for (int level = levels.size() - 1; level > 0; level--) {
+                long levelTick = levelTicks.get(level);
+                if (currentTime % levelTick != 0) continue;
+                Timer<K, V> timer = levels.get(level)[slotIndex(level, currentTime)].drain();
+                while (timer != null) {
+                    Timer<K, V> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    place(timer);
+                    timer = next;
+                }
+            }
+            // Timers moved down may belong to the slot that just finished
+            collect(overdue.drain(), expired);
+        }
+        return expired;
+    }
+
+    private void collect(Timer<K, V> timer, List<Expired<K, V>> expired) {
+        while (timer != null) {
+            Timer<K, V> next = timer.next;
+            timer.slot = null;
+            timer.prev = null;
+            timer.next = null;
+            timers.remove(timer.key);
+            expired.add(new Expired<>(timer.key, timer.value, timer.deadline));
+            timer = next;
+        }
+    }
+
+    private void place(Timer<K, V> timer) {
+        if (timer.deadline < currentTime) {
+            overdue.add(timer);
+            return;
+        }
+        for (int level = 0; ; level++) {
+            if (level == levels.size()) addLevel();
+            long levelTick = levelTicks.get(level);
+            long levelStart = currentTime - Math.floorMod(currentTime, levelTick);
+            if (timer.deadline < levelStart + levelTick * wheelSize) {
+                levels.get(level)[slotIndex(level, timer.deadline)].add(timer);
+                return;
+            }
+        }
+    }
+
+    private int slotIndex(int level, long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, levelTicks.get(level)), (long) wheelSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        long levelTick = levelTicks.isEmpty() ? tickMillis : levelTicks.get(levelTicks.size() - 1) * wheelSize;
+        Slot<K, V>[] slots = new Slot[wheelSize];
+        for (int i = 0; i < wheelSize; i++) slots[i] = new Slot<>();
+        levels.add(slots);
+        levelTicks.add(levelTick);
+    }
+}
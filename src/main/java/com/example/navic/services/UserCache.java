@@ -0,0 +1,125 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of User snapshots by id. Snapshots are shared between
+ * callers and must not be modified. Writers invalidate after their write
+ * lands; Caffeine makes an invalidate wait for a load of the same key in
+ * flight, so a read racing a write cannot put the old document back.
+ *
+ * Writes made by other nodes are seen once the entry expires, or at once
+ * when navic.users.cache.change-stream is on (needs a replica set).
+ */
+@Component
+public class UserCache {
+    private static final Logger log = LoggerFactory.getLogger(UserCache.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, User> users;
+    private final boolean watchChanges;
+    private volatile Thread watcher;
+
+    public UserCache(
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${navic.users.cache.max-size:10000}") long maxSize,
+            @Value("${navic.users.cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${navic.users.cache.change-stream:false}") boolean watchChanges
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.watchChanges = watchChanges;
+        this.users = maxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                        .recordStats()
+                        .build()
+                : null;
+        if (users != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, users, "navic.users");
+        }
+    }
+
+    public User get(String userId, Function<String, User> loader) {
+        if (userId == null) return null;
+        return users != null ? users.get(userId, loader) : loader.apply(userId);
+    }
+
+    public void invalidate(String userId) {
+        if (users != null && userId != null) users.invalidate(userId);
+    }
+
+    public void invalidateAll(Collection<String> userIds) {
+        if (users != null) users.invalidateAll(userIds);
+    }
+
+    public long size() {
+        return users != null ? users.estimatedSize() : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (users == null || !watchChanges) return;
+        Thread thread = new Thread(this::watch, "user-cache-watcher");
+        thread.setDaemon(true);
+        watcher = thread;
+        thread.start();
+    }
+
+    // Drops the entry of every user document changed on any node
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mongoTemplate
+                    .getCollection(mongoTemplate.getCollectionName(User.class))
+                    .watch(List.of(Aggregates.match(Filters.in("operationType", "update", "replace", "delete"))))
+                    .cursor()) {
+                // Changes made while the stream was down were missed, so start clean
+                users.invalidateAll();
+                while (!Thread.currentThread().isInterrupted()) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change == null) continue;
+                    BsonValue id = change.getDocumentKey() != null ? change.getDocumentKey().get("_id") : null;
+                    if (id != null && id.isObjectId()) users.invalidate(id.asObjectId().getValue().toHexString());
+                    else if (id != null && id.isString()) users.invalidate(id.asString().getValue());
+                }
+            } catch (RuntimeException e) {
+                log.warn("User cache change stream failed, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = watcher;
+        if (thread != null) thread.interrupt();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind for the per-user sosCount and rescueCount. Increments land
+ * in LongAdders and are flushed as one unordered bulk write of $inc
+ * updates; incrementNow writes straight through for counts that must not
+ * wait. Readers add pending(...) to the stored value.
+ */
+@Component
+public class UserCounters {
+    private static final Logger log = LoggerFactory.getLogger(UserCounters.class);
+
+    public static final String SOS_COUNT = "sosCount";
+    public static final String RESCUE_COUNT = "rescueCount";
+
+    private static final class Deltas {
+        final LongAdder sosCount = new LongAdder();
+        final LongAdder rescueCount = new LongAdder();
+
+        LongAdder of(String field) {
+            return SOS_COUNT.equals(field) ? sosCount : rescueCount;
+        }
+    }
+
+    private record Flushed(String userId, long sosCount, long rescueCount) {}
+
+    private final MongoTemplate mongoTemplate;
+    private final UserCache userCache;
+    private final boolean writeBehind;
+    // Entries are kept once created: removing one could drop an increment racing the removal.
+    // The map is bounded by the users who have sent an SOS or rescued since startup
+    private final ConcurrentHashMap<String, Deltas> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer flushDuration;
+    private final Counter lost;
+
+    public UserCounters(
+            MongoTemplate mongoTemplate,
+            UserCache userCache,
+            MeterRegistry meterRegistry,
+            @Value("${navic.users.counters.write-behind:true}") boolean writeBehind
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.userCache = userCache;
+        this.writeBehind = writeBehind;
+        this.flushDuration = Timer.builder("navic.users.counters.flush.duration")
+                .description("Duration of one user counter bulk write")
+                .register(meterRegistry);
+        this.lost = Counter.builder("navic.users.counters.lost")
+                .description("Counter increments dropped because a failed flush may already have applied them")
+                .register(meterRegistry);
+        Gauge.builder("navic.users.counters.pending", this, UserCounters::pendingTotal)
+                .description("Counter increments waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    public void increment(String userId, String field) {
+        if (userId == null) return;
+        if (!writeBehind) {
+            incrementNow(userId, field);
+            return;
+        }
+        pending.computeIfAbsent(userId, id -> new Deltas()).of(field).increment();
+    }
+
+    public void incrementNow(String userId, String field) {
+        if (userId == null) return;
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc(field, 1),
+                User.class);
+        userCache.invalidate(userId);
+    }
+
+    /**
+     * Increments of field for the user not yet written to Mongo.
+     */
+    public long pending(String userId, String field) {
+        Deltas deltas = userId != null ? pending.get(userId) : null;
+        return deltas != null ? deltas.of(field).sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${navic.users.counters.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            List<Flushed> batch = new ArrayList<>();
+            for (Map.Entry<String, Deltas> entry : pending.entrySet()) {
+                long sosCount = entry.getValue().sosCount.sumThenReset();
+                long rescueCount = entry.getValue().rescueCount.sumThenReset();
+                if (sosCount != 0 || rescueCount != 0) {
+                    batch.add(new Flushed(entry.getKey(), sosCount, rescueCount));
+                }
+            }
+            if (batch.isEmpty()) return;
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            for (Flushed flushed : batch) {
+                Update update = new Update();
+                if (flushed.sosCount() != 0) update.inc(SOS_COUNT, flushed.sosCount());
+                if (flushed.rescueCount() != 0) update.inc(RESCUE_COUNT, flushed.rescueCount());
+                bulk.updateOne(Query.query(Criteria.where("_id").is(flushed.userId())), update);
+            }
+
+            try {
+                flushDuration.record(bulk::execute);
+            } catch (BulkOperationException e) {
+                // $inc is not idempotent: only the updates the server reports as failed go back
+                List<Flushed> failed = new ArrayList<>(e.getErrors().size());
+                for (BulkWriteError error : e.getErrors()) {
+                    failed.add(batch.get(error.getIndex()));
+                }
+                putBack(failed);
+                log.warn("Counter flush failed for {} of {} users, will retry them: {}", failed.size(), batch.size(), e.getMessage());
+                userCache.invalidateAll(batch.stream().map(Flushed::userId).toList());
+                return;
+            } catch (RuntimeException e) {
+                if (nothingSent(e)) {
+                    putBack(batch);
+                    log.warn("Counter flush of {} users failed, will retry: {}", batch.size(), e.getMessage());
+                } else {
+                    // The server may have applied any part of the batch; retrying could count it twice
+                    lost.increment(batch.stream().mapToLong(f -> f.sosCount() + f.rescueCount()).sum());
+                    log.warn("Counter flush of {} users failed after it was sent, increments not retried: {}", batch.size(), e.getMessage());
+                }
+                userCache.invalidateAll(batch.stream().map(Flushed::userId).toList());
+                return;
+            }
+
+            userCache.invalidateAll(batch.stream().map(Flushed::userId).toList());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void putBack(List<Flushed> flushed) {
+        for (Flushed f : flushed) {
+            Deltas deltas = pending.get(f.userId());
+            deltas.sosCount.add(f.sosCount());
+            deltas.rescueCount.add(f.rescueCount());
+        }
+    }
+
+    // No server could be selected or connected to, so the batch never left this node
+    private static boolean nothingSent(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException || cause instanceof MongoSocketOpenException) return true;
+        }
+        return false;
+    }
+
+    private double pendingTotal() {
+        long total = 0;
+        for (Deltas deltas : pending.values()) {
+            total += deltas.sosCount.sum() + deltas.rescueCount.sum();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -3,167 +3,338 @@ package com.example.navic.services;
 import com.example.navic.dto.RegisterRequest;
 import com.example.navic.models.User;
 import com.example.navic.repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.data.geo.Distance;
 import org.springframework.data.geo.Metrics;
 import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private JwtService jwtService;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private RescuerLocationIndex rescuerLocationIndex;
+
+    @Autowired
+    private LocationUpdateBuffer locationUpdateBuffer;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserCounters userCounters;
+
+    @Value("${navic.dispatch.rings-km:2,5,10,25}")
+    private double[] dispatchRingsKm;
 
-    public String register(String username, String password) {
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // Mongo writes after a hash run here, keeping the hashing pool for hashing. Its work arrives
+    // no faster than hashes complete, and the hashing queue is bounded, so this queue need not be
+    private final ExecutorService ioExecutor;
+
+    public UserService(
+            @Value("${navic.users.io-threads:8}") int ioThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        if (virtualThreads && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            ThreadFactory threadFactory = new VirtualThreadTaskExecutor("user-io-").getVirtualThreadFactory();
+            this.ioExecutor = Executors.newCachedThreadPool(threadFactory);
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.ioExecutor = Executors.newFixedThreadPool(ioThreads, runnable -> {
+                Thread thread = new Thread(runnable, "user-io-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * A rescuer and their distance from the point searched.
+     */
+    public record NearbyRescuer(User user, double distanceKm) {}
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public CompletableFuture<String> register(String username, String password) {
         if (userRepository.findByUsername(username) != null) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
-        User user = new User();
-        user.setUsername(username);
-        user.setPasswordHash(passwordEncoder.encode(password));
-        userRepository.save(user);
-        return jwtService.generate(user.getId());
+        return passwordHashingService.encode(password).thenApplyAsync(passwordHash -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPasswordHash(passwordHash);
+            userRepository.save(user);
+            // No location yet; the index places the new rescuer on their first ping
+            rescuerLocationIndex.upsert(user);
+            return jwtService.generate(user.getId());
+        }, ioExecutor);
     }
 
-    public Map<String, Object> registerFull(RegisterRequest request) {
+    public CompletableFuture<Map<String, Object>> registerFull(RegisterRequest request) {
         Map<String, Object> result = new HashMap<>();
 
         if (userRepository.findByUsername(request.username()) != null) {
             result.put("success", false);
             result.put("error", "Username already exists");
-            return result;
+            return CompletableFuture.completedFuture(result);
         }
 
         if (request.phone() != null && userRepository.findByPhone(request.phone()) != null) {
             result.put("success", false);
             result.put("error", "Phone number already registered");
-            return result;
+            return CompletableFuture.completedFuture(result);
         }
 
-        User user = new User();
-        user.setUsername(request.username());
-        user.setPasswordHash(passwordEncoder.encode(request.password()));
-        user.setFullName(request.fullName());
-        user.setPhone(request.phone());
-        user.setEmail(request.email());
-        user.setEmergencyContact(request.emergencyContact());
-        user.setEmergencyContactPhone(request.emergencyContactPhone());
-        user.setLatitude(request.latitude());
-        user.setLongitude(request.longitude());
-        user.setLocation(new GeoJsonPoint(request.longitude(), request.latitude()));
-        user.setManualAddress(request.manualAddress());
-        user.setFetchedAddress(request.fetchedAddress());
-        user.setCity(request.city());
-        user.setState(request.state());
-        user.setPincode(request.pincode());
-        user.setDeviceId(request.deviceId());
-        user.setBluetoothMac(request.bluetoothMac());
-        user.setLoraId(request.loraId());
-        user.setLastLocationUpdate(Instant.now());
-        user.setLastActiveAt(Instant.now());
-
-        User savedUser = userRepository.save(user);
-
-        result.put("success", true);
-        result.put("token", jwtService.generate(savedUser.getId()));
-        result.put("userId", savedUser.getId());
-        return result;
-    }
-
-    public Map<String, Object> login(String username, String password) {
+        return passwordHashingService.encode(request.password()).thenApplyAsync(passwordHash -> {
+            User user = new User();
+            user.setUsername(request.username());
+            user.setPasswordHash(passwordHash);
+            user.setFullName(request.fullName());
+            user.setPhone(request.phone());
+            user.setEmail(request.email());
+            user.setEmergencyContact(request.emergencyContact());
+            user.setEmergencyContactPhone(request.emergencyContactPhone());
+            user.setLatitude(request.latitude());
+            user.setLongitude(request.longitude());
+            user.setLocation(new GeoJsonPoint(request.longitude(), request.latitude()));
+            user.setManualAddress(request.manualAddress());
+            user.setFetchedAddress(request.fetchedAddress());
+            user.setCity(request.city());
+            user.setState(request.state());
+            user.setPincode(request.pincode());
+            user.setDeviceId(request.deviceId());
+            user.setBluetoothMac(request.bluetoothMac());
+            user.setLoraId(request.loraId());
+            user.setLastLocationUpdate(Instant.now());
+            user.setLastActiveAt(Instant.now());
+
+            User savedUser = userRepository.save(user);
+            rescuerLocationIndex.upsert(savedUser);
+
+            result.put("success", true);
+            result.put("token", jwtService.generate(savedUser.getId()));
+            result.put("userId", savedUser.getId());
+            return result;
+        }, ioExecutor);
+    }
+
+    public CompletableFuture<Map<String, Object>> login(String username, String password) {
         Map<String, Object> result = new HashMap<>();
 
         User user = userRepository.findByUsername(username);
         if (user == null) {
             result.put("success", false);
             result.put("error", "User not found");
-            return result;
+            return CompletableFuture.completedFuture(result);
         }
 
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
-            result.put("success", false);
-            result.put("error", "Invalid password");
-            return result;
-        }
+        return passwordHashingService.matches(password, user.getPasswordHash()).thenApplyAsync(matches -> {
+            if (!matches) {
+                result.put("success", false);
+                result.put("error", "Invalid password");
+                return result;
+            }
 
-        user.setLastActiveAt(Instant.now());
-        userRepository.save(user);
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(user.getId())),
+                    new Update().set("lastActiveAt", Instant.now()),
+                    User.class);
 
-        result.put("success", true);
-        result.put("token", jwtService.generate(user.getId()));
-        result.put("userId", user.getId());
-        result.put("fullName", user.getFullName());
-        result.put("role", user.getRole());
-        return result;
+            if (passwordHashingService.needsRehash(user.getPasswordHash())) {
+                rehashPassword(user, password);
+            }
+
+            result.put("success", true);
+            result.put("token", jwtService.generate(user.getId()));
+            result.put("userId", user.getId());
+            result.put("fullName", user.getFullName());
+            result.put("role", user.getRole());
+            return result;
+        }, ioExecutor);
     }
 
+    // Runs after the login response; a busy pool simply means we try again on the next login
+    private void rehashPassword(User user, String password) {
+        passwordHashingService.encode(password)
+                .thenAcceptAsync(passwordHash -> mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(user.getId())
+                                .and("passwordHash").is(user.getPasswordHash())),
+                        new Update().set("passwordHash", passwordHash),
+                        User.class), ioExecutor)
+                .exceptionally(e -> {
+                    log.debug("Password rehash for {} skipped: {}", user.getId(), e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Cached snapshot; do not modify it. Read-modify-write paths load the
+     * document from the repository instead.
+     */
     public User getUserById(String userId) {
-        return userRepository.findById(userId).orElse(null);
+        return userCache.get(userId, id -> userRepository.findById(id).orElse(null));
     }
 
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
-    public User updateLocation(String userId, double latitude, double longitude) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            user.updateLocation(latitude, longitude);
-            user.setLastActiveAt(Instant.now());
-            return userRepository.save(user);
-        }
-        return null;
+    /**
+     * Accept a location ping. The rescuer index moves immediately; the
+     * user document is written by the next LocationUpdateBuffer flush,
+     * which also drops the cached user.
+     */
+    public void updateLocation(String userId, double latitude, double longitude) {
+        locationUpdateBuffer.submit(userId, latitude, longitude);
+        rescuerLocationIndex.moveIfPresent(userId, latitude, longitude);
     }
 
     public List<User> findNearbyRescuers(double latitude, double longitude, double radiusKm, String excludeUserId) {
+        if (rescuerLocationIndex.isReady()) {
+            return rescuerLocationIndex.findWithinRadius(latitude, longitude, radiusKm, excludeUserId).stream()
+                    .map(match -> match.rescuer().toUser())
+                    .toList();
+        }
         double radiusMeters = radiusKm * 1000;
         return userRepository.findNearbyAvailableRescuers(longitude, latitude, radiusMeters, excludeUserId);
     }
 
-    public User toggleRescueAvailability(String userId, boolean available) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            user.setAvailableForRescue(available);
-            user.setUpdatedAt(Instant.now());
-            return userRepository.save(user);
+    /**
+     * Up to k available rescuers nearest the point, searching the dispatch
+     * rings outwards and stopping as soon as k are found. A rescuer only
+     * counts if the point lies within their own rescueRadiusKm.
+     */
+    public List<NearbyRescuer> findNearestRescuers(double latitude, double longitude, int k, Set<String> excludeUserIds) {
+        List<NearbyRescuer> found = new ArrayList<>(k);
+        if (k <= 0) return found;
+
+        Set<String> seen = new HashSet<>(excludeUserIds);
+        double innerKm = 0;
+        for (double ringKm : dispatchRingsKm) {
+            if (rescuerLocationIndex.isReady()) {
+                for (RescuerLocationIndex.Match match : rescuerLocationIndex.findWithinRadius(latitude, longitude, ringKm, null)) {
+                    RescuerLocationIndex.IndexedRescuer rescuer = match.rescuer();
+                    if (!withinOwnRadius(rescuer.rescueRadiusKm(), match.distanceKm()) || !seen.add(rescuer.userId())) continue;
+                    found.add(new NearbyRescuer(rescuer.toUser(), match.distanceKm()));
+                    if (found.size() == k) return found;
+                }
+            } else {
+                // Inner rings were searched already; over-fetch by the exclusions, which are filtered here
+                int limit = k - found.size() + seen.size();
+                List<User> ring = userRepository.findRescuersInRing(longitude, latitude, innerKm * 1000, ringKm * 1000, limit);
+                double[] distances = distancesKm(latitude, longitude, ring);
+                for (int i = 0; i < ring.size(); i++) {
+                    User user = ring.get(i);
+                    if (!seen.add(user.getId())) continue;
+                    found.add(new NearbyRescuer(user, distances[i]));
+                    if (found.size() == k) return found;
+                }
+            }
+            innerKm = ringKm;
         }
-        return null;
+        return found;
     }
 
-    public User updateFcmToken(String userId, String fcmToken) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            user.setFcmToken(fcmToken);
-            return userRepository.save(user);
+    private static double[] distancesKm(double latitude, double longitude, List<User> users) {
+        int count = users.size();
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = users.get(i).getLatitude();
+            lngs[i] = users.get(i).getLongitude();
         }
-        return null;
+        double[] distances = new double[count];
+        GeoMath.haversineKm(latitude, longitude, lats, lngs, count, distances);
+        return distances;
+    }
+
+    // A radius of zero means the rescuer never set one
+    private static boolean withinOwnRadius(double rescueRadiusKm, double distanceKm) {
+        return rescueRadiusKm <= 0 || distanceKm <= rescueRadiusKm;
+    }
+
+    public User toggleRescueAvailability(String userId, boolean available) {
+        User saved = setFields(userId, new Update()
+                .set("isAvailableForRescue", available)
+                .set("updatedAt", Instant.now()));
+        if (saved != null) indexRescuer(saved);
+        return saved;
+    }
+
+    public User updateFcmToken(String userId, String fcmToken) {
+        return setFields(userId, new Update().set("fcmToken", fcmToken));
     }
 
     public User updateProfile(String userId, Map<String, Object> updates) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            if (updates.containsKey("fullName")) user.setFullName((String) updates.get("fullName"));
-            if (updates.containsKey("email")) user.setEmail((String) updates.get("email"));
-            if (updates.containsKey("emergencyContact")) user.setEmergencyContact((String) updates.get("emergencyContact"));
-            if (updates.containsKey("emergencyContactPhone")) user.setEmergencyContactPhone((String) updates.get("emergencyContactPhone"));
-            if (updates.containsKey("manualAddress")) user.setManualAddress((String) updates.get("manualAddress"));
-            if (updates.containsKey("rescueRadiusKm")) user.setRescueRadiusKm(((Number) updates.get("rescueRadiusKm")).doubleValue());
-            user.setUpdatedAt(Instant.now());
-            return userRepository.save(user);
+        Update update = new Update();
+        for (String field : List.of("fullName", "email", "emergencyContact", "emergencyContactPhone", "manualAddress")) {
+            if (updates.containsKey(field)) update.set(field, (String) updates.get(field));
         }
-        return null;
+        if (updates.containsKey("rescueRadiusKm")) update.set("rescueRadiusKm", ((Number) updates.get("rescueRadiusKm")).doubleValue());
+        update.set("updatedAt", Instant.now());
+
+        User saved = setFields(userId, update);
+        if (saved != null) indexRescuer(saved);
+        return saved;
+    }
+
+    // Only the given fields are written, so buffered counter and location flushes landing meanwhile are kept
+    private User setFields(String userId, Update update) {
+        User saved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+        if (saved != null) userCache.invalidate(userId);
+        return saved;
+    }
+
+    // A ping still waiting in the buffer is newer than the position Mongo returned
+    private void indexRescuer(User saved) {
+        LocationUpdateBuffer.PendingLocation location = locationUpdateBuffer.pending(saved.getId());
+        if (location != null) {
+            saved.setLatitude(location.latitude());
+            saved.setLongitude(location.longitude());
+            saved.setLocation(new GeoJsonPoint(location.longitude(), location.latitude()));
+            saved.setLastLocationUpdate(location.receivedAt());
+        }
+        rescuerLocationIndex.upsert(saved);
     }
 
     public List<User> getUsersByIds(List<String> userIds) {
@@ -171,18 +342,24 @@ public class UserService {
     }
 
     public void incrementSosCount(String userId) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            user.incrementSosCount();
-            userRepository.save(user);
-        }
+        userCounters.increment(userId, UserCounters.SOS_COUNT);
     }
 
+    // A completed rescue is the rescuer's record, so it is written before the resolve returns
     public void incrementRescueCount(String userId) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            user.incrementRescueCount();
-            userRepository.save(user);
-        }
+        userCounters.incrementNow(userId, UserCounters.RESCUE_COUNT);
+    }
+
+    public long getSosCount(User user) {
+        return user.getSosCount() + userCounters.pending(user.getId(), UserCounters.SOS_COUNT);
+    }
+
+    public long getRescueCount(User user) {
+        return user.getRescueCount() + userCounters.pending(user.getId(), UserCounters.RESCUE_COUNT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ioExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
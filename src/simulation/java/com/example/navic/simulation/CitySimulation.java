@@ -0,0 +1,506 @@
+package com.example.navic.simulation;
+
+import com.example.navic.NavicApiApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the API against an in-process, in-memory Mongo wire server and
+ * drives a synthetic city through the real controllers over HTTP: moving
+ * users pinging their location, SOS bursts, rescuers polling and accepting,
+ * arrivals, resolves and cancellations.
+ *
+ * Tunables (system properties): sim.users, sim.rescuer-share,
+ * sim.duration-seconds, sim.concurrency, sim.center-lat, sim.center-lng,
+ * sim.spread-deg, sim.report, sim.metrics (where the server's Prometheus
+ * scrape is saved at the end), sim.virtual-threads (run the server on
+ * virtual threads, needs Java 21), sim.mongo-latency-ms (blocking delay
+ * added to every Mongo command to stand in for a network round trip) and
+ * sim.accept-race-rounds / sim.accept-racers (after the main run, that many
+ * fresh alerts are each accepted by all of their notified rescuers at once).
+ */
+public class CitySimulation {
+
+    private final int users = Integer.getInteger("sim.users", 2000);
+    private final double rescuerShare = Double.parseDouble(System.getProperty("sim.rescuer-share", "0.2"));
+    private final int durationSeconds = Integer.getInteger("sim.duration-seconds", 60);
+    private final int concurrency = Integer.getInteger("sim.concurrency", 32);
+    private final double centerLat = Double.parseDouble(System.getProperty("sim.center-lat", "19.0760"));
+    private final double centerLng = Double.parseDouble(System.getProperty("sim.center-lng", "72.8777"));
+    private final double spreadDeg = Double.parseDouble(System.getProperty("sim.spread-deg", "0.15"));
+    private final String reportPath = System.getProperty("sim.report", "target/simulation-report.json");
+    private final String metricsPath = System.getProperty("sim.metrics", "target/simulation-metrics.prom");
+    private final boolean virtualThreads = Boolean.getBoolean("sim.virtual-threads");
+    private final long mongoLatencyMs = Long.getLong("sim.mongo-latency-ms", 0);
+    private final int acceptRaceRounds = Integer.getInteger("sim.accept-race-rounds", 0);
+    private final int acceptRacers = Integer.getInteger("sim.accept-racers", 20);
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<SimUser> civilians = new ArrayList<>();
+    private final List<SimUser> rescuers = new ArrayList<>();
+    private final Set<String> sendersWithOpenAlert = ConcurrentHashMap.newKeySet();
+    private final Queue<AlertRef> created = new ConcurrentLinkedQueue<>();
+    private final Queue<AlertRef> accepted = new ConcurrentLinkedQueue<>();
+    private final Queue<AlertRef> arrived = new ConcurrentLinkedQueue<>();
+
+    private String baseUrl;
+
+    static final class SimUser {
+        final String username;
+        volatile String token;
+        volatile String userId;
+        volatile double lat;
+        volatile double lng;
+
+        SimUser(String username, double lat, double lng) {
+            this.username = username;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    record AlertRef(String alertId, SimUser sender, SimUser responder) {}
+
+    public static void main(String[] args) throws Exception {
+        new CitySimulation().run();
+    }
+
+    void run() throws Exception {
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongo.bind();
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Metrics are only served on the management port, which must be known up front to be let through
+        int managementPort = freePort();
+        // The in-memory server skips secondary indexes except unique ones, and builds those without their
+        // partial filter, which would turn sender_active into one alert per sender ever. Leave indexes out.
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(NavicApiApplication.class)
+                .initializers(context -> context.getBeanFactory().registerSingleton(
+                        "simulatedMongoLatency", simulatedMongoLatency()))
+                .run(
+                "--spring.data.mongodb.uri=mongodb://" + address.getHostString() + ":" + address.getPort() + "/navic_sim",
+                "--spring.data.mongodb.database=navic_sim",
+                "--navic.mongo.ensure-indexes=false",
+                // Every notified rescuer takes part in an accept race
+                "--navic.dispatch.target-rescuers=" + (acceptRaceRounds > 0 ? acceptRacers : 10),
+                "--server.port=0",
+                "--management.server.port=" + managementPort,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--security.password.bcrypt-strength=4",
+                "--security.password.hash-queue-capacity=100000",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.navic=WARN"
+        );
+
+        try {
+            int port = ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+
+            System.out.printf("Seeding %d users (%d%% rescuers)...%n", users, Math.round(rescuerShare * 100));
+            seedUsers();
+
+            System.out.printf("Running %d workers for %d s (%s threads, %d ms per Mongo command)...%n",
+                    concurrency, durationSeconds, virtualThreads ? "virtual" : "platform", mongoLatencyMs);
+            long started = System.nanoTime();
+            drive(started + TimeUnit.SECONDS.toNanos(durationSeconds));
+            double elapsed = (System.nanoTime() - started) / 1e9;
+
+            Map<String, Object> race = null;
+            if (acceptRaceRounds > 0) {
+                System.out.printf("Racing accepts on %d alerts...%n", acceptRaceRounds);
+                race = raceAccepts();
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("users", users);
+            report.put("rescuers", rescuers.size());
+            report.put("concurrency", concurrency);
+            report.put("virtualThreads", virtualThreads);
+            report.put("mongoLatencyMs", mongoLatencyMs);
+            report.put("elapsedSeconds", Math.round(elapsed * 100) / 100.0);
+            report.put("endpoints", recorder.report(elapsed));
+            if (race != null) report.put("acceptRace", race);
+            print(recorder.report(elapsed));
+
+            File out = new File(reportPath);
+            if (out.getParentFile() != null) out.getParentFile().mkdirs();
+            json.writerWithDefaultPrettyPrinter().writeValue(out, report);
+            System.out.println("Report written to " + out.getPath());
+
+            HttpResponse<String> scrape = http.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/prometheus")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Files.writeString(new File(metricsPath).toPath(), scrape.body());
+            System.out.println("Metrics written to " + metricsPath);
+        } finally {
+            app.close();
+            mongo.shutdown();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private MongoClientSettingsBuilderCustomizer simulatedMongoLatency() {
+        CommandListener delay = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if (mongoLatencyMs <= 0) return;
+                try {
+                    Thread.sleep(mongoLatencyMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        return settings -> settings.addCommandListener(delay);
+    }
+
+    private void seedUsers() throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        List<SimUser> all = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            SimUser user = new SimUser("sim-user-" + i,
+                    centerLat + random.nextDouble(-spreadDeg, spreadDeg),
+                    centerLng + random.nextDouble(-spreadDeg, spreadDeg));
+            all.add(user);
+            (i < users * rescuerShare ? rescuers : civilians).add(user);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> registrations = new ArrayList<>();
+        for (SimUser user : all) {
+            registrations.add(pool.submit(() -> register(user)));
+        }
+        for (Future<?> registration : registrations) registration.get();
+        pool.shutdown();
+
+        // Rescuers must be in the geo index before SOS traffic starts
+        TimeUnit.SECONDS.sleep(1);
+    }
+
+    private void register(SimUser user) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", user.username);
+        body.put("password", "simulation");
+        body.put("fullName", "Sim " + user.username);
+        body.put("phone", "+91" + (9000000000L + Long.parseLong(user.username.substring("sim-user-".length()))));
+        body.put("latitude", user.lat);
+        body.put("longitude", user.lng);
+
+        JsonNode response = send("POST /auth/register/full", request("/auth/register/full", null)
+                .header("Content-Type", "application/json")
+                .POST(jsonBody(body)));
+        if (response != null) {
+            user.token = response.path("token").asText(null);
+            user.userId = response.path("userId").asText(null);
+        }
+    }
+
+    private void drive(long deadline) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            long seed = 1000L + w;
+            workers.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                while (System.nanoTime() < deadline) {
+                    step(random);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) worker.get();
+        pool.shutdown();
+    }
+
+    private void step(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 70) {
+            locationPing(random);
+        } else if (roll < 74) {
+            createSos(random);
+        } else if (roll < 84) {
+            pollAndAccept(random);
+        } else if (roll < 90) {
+            arrive();
+        } else if (roll < 95) {
+            trackResponder(random);
+        } else if (roll < 98) {
+            resolve();
+        } else {
+            cancel();
+        }
+    }
+
+    private void locationPing(SplittableRandom random) {
+        SimUser user = random.nextBoolean() ? pick(rescuers, random) : pick(civilians, random);
+        if (user == null || user.token == null) return;
+        user.lat += random.nextDouble(-0.0005, 0.0005);
+        user.lng += random.nextDouble(-0.0005, 0.0005);
+
+        send("PUT /auth/location", request("/auth/location?latitude=" + user.lat + "&longitude=" + user.lng, user.token)
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private void createSos(SplittableRandom random) {
+        SimUser sender = pick(civilians, random);
+        if (sender == null || sender.token == null || !sendersWithOpenAlert.add(sender.username)) return;
+
+        String alertId = openAlert(sender);
+        if (alertId != null) {
+            created.add(new AlertRef(alertId, sender, null));
+        } else {
+            sendersWithOpenAlert.remove(sender.username);
+        }
+    }
+
+    private String openAlert(SimUser sender) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("latitude", sender.lat);
+        body.put("longitude", sender.lng);
+        body.put("accuracy", 8.0);
+        body.put("emergencyType", "FLOOD");
+        body.put("description", "Simulated SOS");
+
+        JsonNode response = send("POST /api/sos/create", request("/api/sos/create", sender.token)
+                .header("Content-Type", "application/json")
+                .POST(jsonBody(body)));
+        return response != null ? response.path("alert").path("id").asText(null) : null;
+    }
+
+    /**
+     * Open an alert, wait for dispatch, then have every notified rescuer
+     * accept it at the same instant. Exactly one accept per alert may win.
+     */
+    private Map<String, Object> raceAccepts() throws Exception {
+        // Users register available for rescue, so civilians get notified as well
+        Map<String, SimUser> byUserId = new HashMap<>();
+        for (List<SimUser> group : List.of(rescuers, civilians)) {
+            for (SimUser user : group) {
+                if (user.userId != null) byUserId.put(user.userId, user);
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(acceptRacers);
+        int rounds = 0;
+        long racers = 0;
+        int roundsWithOneWinner = 0;
+        try {
+            for (SimUser sender : civilians) {
+                if (rounds == acceptRaceRounds) break;
+                if (sender.token == null || !sendersWithOpenAlert.add(sender.username)) continue;
+                String alertId = openAlert(sender);
+                if (alertId == null) continue;
+
+                List<SimUser> notified = awaitNotified(alertId, sender, byUserId);
+                if (notified.isEmpty()) continue;
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> accepts = new ArrayList<>();
+                for (SimUser rescuer : notified) {
+                    accepts.add(pool.submit(() -> {
+                        start.await();
+                        JsonNode response = send("POST /api/sos/{id}/accept (race)", request("/api/sos/" + alertId + "/accept", rescuer.token)
+                                .POST(HttpRequest.BodyPublishers.noBody()));
+                        return response != null && response.path("success").asBoolean(false);
+                    }));
+                }
+                start.countDown();
+
+                int winners = 0;
+                for (Future<Boolean> accept : accepts) {
+                    if (accept.get()) winners++;
+                }
+                rounds++;
+                racers += notified.size();
+                if (winners == 1) roundsWithOneWinner++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Object> race = new LinkedHashMap<>();
+        race.put("rounds", rounds);
+        race.put("racersPerRound", rounds > 0 ? Math.round(racers * 10.0 / rounds) / 10.0 : 0);
+        race.put("roundsWithOneWinner", roundsWithOneWinner);
+        System.out.printf("%d of %d accept races had exactly one winner (%.1f racers each)%n",
+                roundsWithOneWinner, rounds, rounds > 0 ? (double) racers / rounds : 0);
+        return race;
+    }
+
+    // Dispatch runs asynchronously; the alert lists its responders once it has
+    private List<SimUser> awaitNotified(String alertId, SimUser sender, Map<String, SimUser> byUserId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            JsonNode response = send("GET /api/sos/{id}", request("/api/sos/" + alertId, sender.token).GET());
+            JsonNode responders = response != null ? response.path("responders") : null;
+            if (responders != null && !responders.isEmpty()) {
+                List<SimUser> notified = new ArrayList<>();
+                for (JsonNode responder : responders) {
+                    SimUser rescuer = byUserId.get(responder.path("userId").asText());
+                    if (rescuer != null && rescuer.token != null) notified.add(rescuer);
+                }
+                return notified;
+            }
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        return List.of();
+    }
+
+    private void pollAndAccept(SplittableRandom random) {
+        SimUser rescuer = pick(rescuers, random);
+        if (rescuer == null || rescuer.token == null) return;
+
+        JsonNode pending = send("GET /api/sos/pending", request("/api/sos/pending", rescuer.token).GET());
+        if (pending == null || pending.path("alerts").isEmpty()) return;
+
+        String alertId = pending.path("alerts").get(0).path("id").asText();
+        JsonNode response = send("POST /api/sos/{id}/accept", request("/api/sos/" + alertId + "/accept", rescuer.token)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        if (response != null && response.path("success").asBoolean(false)) {
+            AlertRef open = removeCreated(alertId);
+            accepted.add(new AlertRef(alertId, open != null ? open.sender() : null, rescuer));
+        }
+    }
+
+    private void arrive() {
+        AlertRef alert = accepted.poll();
+        if (alert == null) return;
+
+        send("PUT /api/sos/{id}/status", request("/api/sos/" + alert.alertId() + "/status?status=ARRIVED", alert.responder().token)
+                .PUT(HttpRequest.BodyPublishers.noBody()));
+        arrived.add(alert);
+    }
+
+    private void trackResponder(SplittableRandom random) {
+        AlertRef alert = accepted.peek();
+        if (alert == null) return;
+
+        SimUser responder = alert.responder();
+        Map<String, Object> body = Map.of(
+                "latitude", responder.lat + random.nextDouble(-0.001, 0.001),
+                "longitude", responder.lng + random.nextDouble(-0.001, 0.001),
+                "accuracy", 5.0);
+        send("PUT /api/sos/{id}/location/responder", request("/api/sos/" + alert.alertId() + "/location/responder", responder.token)
+                .header("Content-Type", "application/json")
+                .PUT(jsonBody(body)));
+    }
+
+    private void resolve() {
+        AlertRef alert = arrived.poll();
+        if (alert == null) return;
+
+        send("POST /api/sos/{id}/resolve", request("/api/sos/" + alert.alertId() + "/resolve", alert.responder().token)
+                .header("Content-Type", "application/json")
+                .POST(jsonBody(Map.of("notes", "Simulated rescue", "resolutionType", "RESCUED"))));
+        if (alert.sender() != null) sendersWithOpenAlert.remove(alert.sender().username);
+    }
+
+    private void cancel() {
+        AlertRef alert = created.poll();
+        if (alert == null) return;
+
+        send("POST /api/sos/{id}/cancel", request("/api/sos/" + alert.alertId() + "/cancel", alert.sender().token)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        sendersWithOpenAlert.remove(alert.sender().username);
+    }
+
+    private AlertRef removeCreated(String alertId) {
+        for (AlertRef ref : created) {
+            if (ref.alertId().equals(alertId) && created.remove(ref)) return ref;
+        }
+        return null;
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher jsonBody(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body));
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder builder) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode());
+            if (response.statusCode() >= 400 || response.body().length == 0) return null;
+            return json.readTree(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - start, 599);
+            return null;
+        }
+    }
+
+    private static SimUser pick(List<SimUser> users, SplittableRandom random) {
+        return users.isEmpty() ? null : users.get(random.nextInt(users.size()));
+    }
+
+    private static void print(Map<String, Map<String, Object>> report) {
+        System.out.printf("%n%-38s %9s %8s %8s %8s %10s %9s %9s %9s%n",
+                "endpoint", "requests", "ok", "4xx", "failed", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        report.forEach((endpoint, row) -> System.out.printf("%-38s %9d %8d %8d %8d %10.1f %9.2f %9.2f %9.2f%n",
+                endpoint,
+                (Long) row.get("requests"),
+                (Long) row.get("ok"),
+                (Long) row.get("rejected4xx"),
+                (Long) row.get("failed"),
+                (Double) row.get("throughputPerSec"),
+                (Double) row.get("p50Ms"),
+                (Double) row.get("p99Ms"),
+                (Double) row.get("p999Ms")));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.navic.simulation;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and outcome counters.
+ */
+class LatencyRecorder {
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private static class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    void record(String endpoint, long nanos, int status) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        stats.latency.recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+        if (status >= 200 && status < 400) {
+            stats.ok.increment();
+        } else if (status >= 400 && status < 500) {
+            stats.rejected.increment();
+        } else {
+            stats.failed.increment();
+        }
+    }
+
+    Map<String, Map<String, Object>> report(double elapsedSeconds) {
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint stats = entry.getValue();
+            Histogram latency = stats.latency;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", latency.getTotalCount());
+            row.put("ok", stats.ok.sum());
+            row.put("rejected4xx", stats.rejected.sum());
+            row.put("failed", stats.failed.sum());
+            row.put("throughputPerSec", round(latency.getTotalCount() / elapsedSeconds));
+            row.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+            row.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+            row.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+            row.put("maxMs", millis(latency.getMaxValue()));
+            report.put(entry.getKey(), row);
+        }
+        return report;
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.navic.repositories;
+
+import com.example.navic.config.MongoIndexInitializer;
+import com.example.navic.models.SOSAlert;
+import com.example.navic.models.SOSLocationPoint;
+import com.example.navic.models.User;
+import com.example.navic.services.ActiveAlertRegistry;
+import com.example.navic.services.LocationTrailService;
+import com.example.navic.services.SOSDispatcher;
+import com.example.navic.services.SOSService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs each query the application issues against a real mongod and checks
+ * the winning plan from explain: no COLLSCAN and no in-memory SORT. The
+ * command explained is the one the driver actually sent, captured with a
+ * CommandListener. The reactive repositories send the same filters as their
+ * blocking counterparts, and the active board is served by ActiveAlertRegistry.
+ * Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "navic.mongo.ensure-indexes=false",
+        "navic.rescuer-index.rebuild-on-startup=false",
+        "navic.dispatch.recovery-interval-ms=3600000"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndexCoverageTests {
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongo.getReplicaSetUrl("navic_db"));
+    }
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count");
+    private static final Set<String> BLOCKING_STAGES = Set.of("COLLSCAN", "SORT", "$sort");
+
+    record SentCommand(Thread thread, String name, BsonDocument command) {}
+
+    static final List<SentCommand> sent = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CaptureCommands {
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureCommands() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    sent.add(new SentCommand(Thread.currentThread(), event.getCommandName(), event.getCommand().clone()));
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexInitializer indexInitializer;
+
+    @Autowired
+    private SOSAlertRepository alertRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SOSService sosService;
+
+    @Autowired
+    private SOSDispatcher dispatcher;
+
+    @Autowired
+    private ActiveAlertRegistry activeAlerts;
+
+    @Autowired
+    private LocationTrailService locationTrailService;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeAll
+    void seed() {
+        indexInitializer.ensureIndexes();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPhone("90000000" + String.format("%02d", i));
+            user.setEmail("user" + i + "@example.com");
+            user.setRole(i % 2 == 0 ? "RESCUER" : "CITIZEN");
+            user.setLatitude(19.07 + i * 0.001);
+            user.setLongitude(72.87 + i * 0.001);
+            user.setLocation(new GeoJsonPoint(user.getLongitude(), user.getLatitude()));
+            user.setAvailableForRescue(i % 2 == 0);
+            user.setActive(true);
+            users.add(user);
+        }
+        mongoTemplate.insertAll(users);
+
+        String[] statuses = {"PENDING", "ALERTED", "ACCEPTED", "IN_PROGRESS", "RESOLVED", "CANCELLED"};
+        List<SOSAlert> alerts = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            SOSAlert alert = new SOSAlert();
+            alert.setAlertCode("SOS-2024-" + i);
+            alert.setStatus(statuses[i % statuses.length]);
+            // sender_active allows one open alert per sender, so only closed ones share a sender
+            alert.setSenderId(ActiveAlertRegistry.ACTIVE_STATUSES.contains(alert.getStatus()) ? "sender" + i : "user" + (i % 5));
+            alert.setPrimaryResponderId("user" + (10 + i % 3));
+            alert.setNotifiedUserIds(List.of("user" + (10 + i % 3), "user" + (14 + i % 3)));
+            alert.setLocation(new GeoJsonPoint(72.87 + i * 0.001, 19.07 + i * 0.001));
+            alert.setCreatedAt(now.minusSeconds(60L * i));
+            alert.setExpiresAt(now.minusSeconds(60L * i - 1800));
+            SOSAlert.Dispatch dispatch = new SOSAlert.Dispatch();
+            dispatch.setStatus(i % 10 == 0 ? "PENDING" : "DONE");
+            dispatch.setNextAttemptAt(now.plusSeconds(3600));
+            alert.setDispatch(dispatch);
+            alerts.add(alert);
+        }
+        mongoTemplate.insertAll(alerts);
+
+        List<SOSLocationPoint> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            SOSLocationPoint point = new SOSLocationPoint("alert-" + (i % 4), i % 2 == 0 ? SOSLocationPoint.SENDER : SOSLocationPoint.RESPONDER,
+                    19.07 + i * 0.0001, 72.87, 5.0, "GPS");
+            point.setTimestamp(now.minusSeconds(i));
+            points.add(point);
+        }
+        mongoTemplate.insertAll(points);
+    }
+
+    @Test
+    void alertQueriesUseIndexes() {
+        assertIndexed(() -> alertRepository.findBySenderIdOrderByCreatedAtDesc("user1"));
+        assertIndexed(() -> alertRepository.findByStatusOrderByCreatedAtDesc("PENDING"));
+        assertIndexed(() -> alertRepository.findActiveAlerts());
+        assertIndexed(() -> alertRepository.findPendingAlertsForUser("user10"));
+        assertIndexed(() -> alertRepository.findByPrimaryResponderIdOrderByCreatedAtDesc("user11"));
+        assertIndexed(() -> alertRepository.findByCreatedAtAfterOrderByCreatedAtDesc(now.minusSeconds(600)));
+        assertIndexed(() -> alertRepository.findExpiredAlerts(now));
+        assertIndexed(() -> alertRepository.findNearbyActiveAlerts(72.88, 19.08, 5_000));
+        assertIndexed(() -> alertRepository.findByAlertCode("SOS-2024-7"));
+        assertIndexed(() -> dispatcher.recoverPending());
+        assertIndexed(() -> activeAlerts.reconcile());
+    }
+
+    @Test
+    void keysetPagesUseIndexes() {
+        SOSService.AlertPage bySender = sosService.getAlertsBySender("user3", null, 2);
+        assertNotNull(bySender.nextCursor());
+        assertIndexed(() -> sosService.getAlertsBySender("user3", null, 2));
+        assertIndexed(() -> sosService.getAlertsBySender("user3", bySender.nextCursor(), 2));
+
+        assertIndexed(() -> sosService.getAlertsAcceptedByResponder("user12", null, 5));
+    }
+
+    @Test
+    void secondOpenAlertForASenderIsRejected() {
+        SOSAlert first = new SOSAlert();
+        first.setSenderId("twice");
+        first.setStatus("PENDING");
+        alertRepository.insert(first);
+
+        SOSAlert second = new SOSAlert();
+        second.setSenderId("twice");
+        second.setStatus("ALERTED");
+        assertThrows(DuplicateKeyException.class, () -> alertRepository.insert(second));
+
+        first.setStatus("CANCELLED");
+        alertRepository.save(first);
+        assertNotNull(alertRepository.insert(second).getId());
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        assertIndexed(() -> userRepository.findByUsername("user4"));
+        assertIndexed(() -> userRepository.findByPhone("9000000004"));
+        assertIndexed(() -> userRepository.findByEmail("user4@example.com"));
+        assertIndexed(() -> userRepository.findByLocationNear(new Point(72.88, 19.08), new Distance(5, Metrics.KILOMETERS)));
+        assertIndexed(() -> userRepository.findNearbyAvailableRescuers(72.88, 19.08, 5_000, "user0"));
+        assertIndexed(() -> userRepository.findRescuersInRing(72.88, 19.08, 2_000, 5_000, 10));
+        assertIndexed(() -> userRepository.streamAvailableRescuers().close());
+        assertIndexed(() -> userRepository.findByIdIn(List.of("a", "b")));
+    }
+
+    @Test
+    void trailQueriesUseIndexes() {
+        assertIndexed(() -> locationTrailService.getTrail("alert-1", SOSLocationPoint.SENDER, now.minusSeconds(60), now));
+        assertIndexed(() -> locationTrailService.getRecentTrail("alert-1", SOSLocationPoint.RESPONDER));
+    }
+
+    private void assertIndexed(Runnable query) {
+        sent.clear();
+        query.run();
+
+        BsonDocument command = sent.stream()
+                .filter(c -> c.thread() == Thread.currentThread() && QUERY_COMMANDS.contains(c.name()))
+                .reduce((first, second) -> second)
+                .map(SentCommand::command)
+                .orElseThrow(() -> new AssertionError("no query was sent"));
+
+        BsonDocument explainable = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                explainable.put(key, value);
+            }
+        });
+        Document explain = mongoTemplate.getDb().runCommand(
+                new Document("explain", explainable).append("verbosity", "queryPlanner"));
+
+        List<String> blocking = new ArrayList<>();
+        collectBlockingStages(explain, blocking);
+        assertEquals(List.of(), blocking, () -> "unindexed plan for " + explainable.toJson() + "\n" + explain.toJson());
+    }
+
+    // Walks the whole explain output (find and aggregate shapes differ) except the rejected plans
+    private static void collectBlockingStages(Object node, List<String> blocking) {
+        if (node instanceof Document document) {
+            document.forEach((key, value) -> {
+                if (key.equals("rejectedPlans")) return;
+                if (key.equals("stage") && BLOCKING_STAGES.contains(value)) blocking.add((String) value);
+                if (BLOCKING_STAGES.contains(key)) blocking.add(key);
+                collectBlockingStages(value, blocking);
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectBlockingStages(item, blocking));
+        }
+    }
+}
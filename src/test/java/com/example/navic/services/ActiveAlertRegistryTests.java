@@ -0,0 +1,119 @@
+package com.example.navic.services;
+
+import com.example.navic.models.SOSAlert;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveAlertRegistryTests {
+
+    private static final Instant T0 = Instant.parse("2024-06-01T10:00:00Z");
+
+    private static SOSAlert alert(String id, String senderId, String status, double lat, double lng, long createdSecond) {
+        SOSAlert alert = new SOSAlert();
+        alert.setId(id);
+        alert.setAlertCode("SOS-" + id);
+        alert.setSenderId(senderId);
+        alert.setStatus(status);
+        alert.setLatitude(lat);
+        alert.setLongitude(lng);
+        alert.setLocation(new GeoJsonPoint(lng, lat));
+        alert.setCreatedAt(T0.plusSeconds(createdSecond));
+        alert.setUpdatedAt(T0.plusSeconds(createdSecond));
+        return alert;
+    }
+
+    private static List<String> ids(List<SOSAlert> alerts) {
+        return alerts.stream().map(SOSAlert::getId).toList();
+    }
+
+    @Test
+    void indexesOpenAlertsAndDropsClosedOnes() {
+        ActiveAlertRegistry registry = new ActiveAlertRegistry(0.05);
+        SOSAlert open = alert("a1", "sender", "ALERTED", 19.0760, 72.8777, 0);
+        open.setNotifiedUserIds(List.of("rescuer"));
+        registry.apply(open);
+
+        assertSame(open, registry.get("a1"));
+        assertSame(open, registry.getByCode("SOS-a1"));
+        assertTrue(registry.hasActiveAlert("sender"));
+        assertEquals(List.of("a1"), ids(registry.awaitingResponseFrom("rescuer")));
+
+        SOSAlert resolved = alert("a1", "sender", "RESOLVED", 19.0760, 72.8777, 0);
+        resolved.setUpdatedAt(T0.plusSeconds(60));
+        registry.apply(resolved);
+
+        assertNull(registry.get("a1"));
+        assertNull(registry.getByCode("SOS-a1"));
+        assertFalse(registry.hasActiveAlert("sender"));
+        assertEquals(List.of(), registry.awaitingResponseFrom("rescuer"));
+        assertEquals(0, registry.size());
+
+        // A write-through that lost the race to the resolve must not bring it back
+        registry.apply(open);
+        assertNull(registry.get("a1"));
+    }
+
+    @Test
+    void ignoresUpdatesOlderThanTheOneHeld() {
+        ActiveAlertRegistry registry = new ActiveAlertRegistry(0.05);
+        SOSAlert accepted = alert("a1", "sender", "ACCEPTED", 19.0760, 72.8777, 0);
+        accepted.setUpdatedAt(T0.plusSeconds(30));
+        registry.apply(accepted);
+
+        registry.apply(alert("a1", "sender", "ALERTED", 19.0760, 72.8777, 0));
+
+        assertEquals("ACCEPTED", registry.get("a1").getStatus());
+    }
+
+    @Test
+    void pagesNewestFirstFromACursor() {
+        ActiveAlertRegistry registry = new ActiveAlertRegistry(0.05);
+        for (int i = 0; i < 5; i++) {
+            registry.apply(alert("a" + i, "sender" + i, "PENDING", 19.0, 72.0, i));
+        }
+
+        List<SOSAlert> first = registry.page(null, null, 2);
+        assertEquals(List.of("a4", "a3"), ids(first));
+
+        SOSAlert last = first.get(1);
+        assertEquals(List.of("a2", "a1"), ids(registry.page(last.getCreatedAt(), last.getId(), 2)));
+    }
+
+    @Test
+    void findsNearbyAlertsNearestFirstInTheRequestedStatuses() {
+        ActiveAlertRegistry registry = new ActiveAlertRegistry(0.05);
+        registry.apply(alert("near", "s1", "ALERTED", 19.0770, 72.8780, 0));
+        registry.apply(alert("far", "s2", "ACCEPTED", 19.1200, 72.9000, 1));
+        registry.apply(alert("busy", "s3", "IN_PROGRESS", 19.0765, 72.8779, 2));
+        registry.apply(alert("outside", "s4", "PENDING", 19.5000, 73.5000, 3));
+
+        List<ActiveAlertRegistry.Nearby> matches = registry.near(19.0760, 72.8777, 10.0,
+                List.of("PENDING", "ALERTED", "ACCEPTED"));
+
+        assertEquals(List.of("near", "far"), matches.stream().map(m -> m.alert().getId()).toList());
+    }
+
+    @Test
+    void worldwideSearchOnlyLooksAtCellsWithAlertsInThem() {
+        ActiveAlertRegistry registry = new ActiveAlertRegistry(0.05);
+        registry.apply(alert("mumbai", "s1", "ALERTED", 19.0770, 72.8780, 0));
+        registry.apply(alert("moved", "s2", "PENDING", 28.6139, 77.2090, 1));
+        registry.apply(alert("moved", "s2", "PENDING", 19.1200, 72.9000, 1));
+
+        // About 26M cells in the box, but only the two still holding an alert are visited
+        long started = System.nanoTime();
+        List<ActiveAlertRegistry.Nearby> matches = registry.near(19.0760, 72.8777, 20_000, List.of("PENDING", "ALERTED"));
+
+        assertEquals(List.of("mumbai", "moved"), matches.stream().map(m -> m.alert().getId()).toList());
+        assertTrue(System.nanoTime() - started < 1_000_000_000L);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.navic.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeoGridTests {
+
+    @Test
+    void walkingOccupiedCellsVisitsTheSameCellsAsWalkingTheBox() {
+        SplittableRandom random = new SplittableRandom(11);
+        GeoGrid grid = new GeoGrid(0.5);
+
+        for (int round = 0; round < 200; round++) {
+            Set<Long> occupied = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                occupied.add(grid.cellOf(random.nextDouble(-90, 90), random.nextDouble(-180, 180)));
+            }
+            // Centres near the poles and the antimeridian, radii up to half the planet
+            double lat = random.nextDouble(-89, 89);
+            double lng = random.nextDouble(-180, 180);
+            double radiusKm = Math.exp(random.nextDouble(Math.log(1), Math.log(20_000)));
+
+            Set<Long> expected = new HashSet<>();
+            grid.forEachCellWithin(lat, lng, radiusKm, null, cell -> {
+                if (occupied.contains(cell)) expected.add(cell);
+            });
+            Set<Long> actual = new HashSet<>();
+            grid.forEachCellWithin(lat, lng, radiusKm, occupied, cell -> {
+                if (occupied.contains(cell)) actual.add(cell);
+            });
+
+            assertEquals(expected, actual, "lat " + lat + " lng " + lng + " radius " + radiusKm);
+        }
+    }
+}
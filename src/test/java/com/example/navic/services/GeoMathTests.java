@@ -0,0 +1,50 @@
+package com.example.navic.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeoMathTests {
+
+    @Test
+    void withinRadiusFindsExactlyWhatTheHaversineFinds() {
+        SplittableRandom random = new SplittableRandom(7);
+        int count = 2000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        double[] scratch = new double[count];
+        int[] hits = new int[count];
+        double[] distances = new double[count];
+
+        for (int round = 0; round < 200; round++) {
+            // Centres up to near the poles and the antimeridian, radii from a street to a region
+            double lat = random.nextDouble(-85, 85);
+            double lng = random.nextDouble(-180, 180);
+            double radiusKm = Math.exp(random.nextDouble(Math.log(0.5), Math.log(500)));
+            double spread = 2 * radiusKm / 111.0;
+            for (int i = 0; i < count; i++) {
+                lats[i] = Math.max(-90, Math.min(90, lat + random.nextDouble(-spread, spread)));
+                lngs[i] = lng + random.nextDouble(-spread, spread) / Math.max(0.05, Math.cos(Math.toRadians(lat)));
+                if (lngs[i] > 180) lngs[i] -= 360;
+                if (lngs[i] < -180) lngs[i] += 360;
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (GeoMath.haversineKm(lat, lng, lats[i], lngs[i]) <= radiusKm) expected.add(i);
+            }
+
+            int found = GeoMath.withinRadius(lat, lng, radiusKm, lats, lngs, count, scratch, hits, distances);
+            List<Integer> actual = new ArrayList<>();
+            for (int i = 0; i < found; i++) {
+                actual.add(hits[i]);
+                assertEquals(GeoMath.haversineKm(lat, lng, lats[hits[i]], lngs[hits[i]]), distances[i], 1e-9);
+            }
+            assertEquals(expected, actual, "lat " + lat + " lng " + lng + " radius " + radiusKm);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.navic.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MediaStoreTests {
+
+    @Test
+    void onlyImagesAndAudioKeepTheirDeclaredType() {
+        assertEquals("image/png", MediaStore.safeContentType("image/png"));
+        assertEquals("image/jpeg", MediaStore.safeContentType("IMAGE/JPEG"));
+        assertEquals("audio/mpeg", MediaStore.safeContentType("audio/mpeg"));
+
+        // Rendered by the browser from the API origin, unparseable, or missing
+        for (String declared : new String[] {"text/html", "image/svg+xml", "application/pdf", "garbage", "", null}) {
+            assertEquals("application/octet-stream", MediaStore.safeContentType(declared), String.valueOf(declared));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RescuerLocationIndexTests {
+
+    private static User rescuer(String id, double lat, double lng) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(id);
+        user.setLatitude(lat);
+        user.setLongitude(lng);
+        user.setLocation(new GeoJsonPoint(lng, lat));
+        return user;
+    }
+
+    @Test
+    void findsRescuersNearestFirstAndHonoursExclusion() {
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        index.upsert(rescuer("near", 19.0770, 72.8780));
+        index.upsert(rescuer("far", 19.1200, 72.9000));
+        index.upsert(rescuer("sender", 19.0761, 72.8776));
+        index.upsert(rescuer("outside", 19.5000, 73.5000));
+
+        List<RescuerLocationIndex.Match> matches = index.findWithinRadius(19.0760, 72.8777, 10.0, "sender");
+
+        assertEquals(List.of("near", "far"), matches.stream().map(m -> m.rescuer().userId()).toList());
+        assertTrue(matches.get(0).distanceKm() < matches.get(1).distanceKm());
+    }
+
+    @Test
+    void dropsUnavailableRescuersAndTracksMoves() {
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        User user = rescuer("r1", 19.0760, 72.8777);
+        index.upsert(user);
+
+        index.moveIfPresent("r1", 28.6139, 77.2090);
+        index.moveIfPresent("unknown", 28.6139, 77.2090);
+        assertTrue(index.findWithinRadius(19.0760, 72.8777, 5.0, null).isEmpty());
+        assertEquals(1, index.findWithinRadius(28.6139, 77.2090, 1.0, null).size());
+
+        user.setAvailableForRescue(false);
+        index.upsert(user);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void searchWrapsAcrossTheAntimeridian() {
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        index.upsert(rescuer("east", -16.5, 179.99));
+
+        assertEquals(1, index.findWithinRadius(-16.5, -179.99, 5.0, null).size());
+    }
+
+    @Test
+    void worldwideSearchWalksOnlyTheOccupiedCells() {
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        index.upsert(rescuer("mumbai", 19.0760, 72.8777));
+        index.upsert(rescuer("fiji", -16.5, 179.99));
+
+        // The box covers the whole grid, about 26M cells; the search only looks at the two occupied ones
+        long started = System.nanoTime();
+        List<RescuerLocationIndex.Match> matches = index.findWithinRadius(19.0760, 72.8777, 20_000, null);
+
+        assertEquals(List.of("mumbai", "fiji"), ids(matches));
+        assertTrue(System.nanoTime() - started < 1_000_000_000L);
+    }
+
+    @Test
+    void resyncAppliesOtherNodesChangesButKeepsNewerLocalOnes() {
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        Instant loaded = Instant.parse("2026-01-01T00:00:00Z");
+        User moved = rescuer("moved", 19.0760, 72.8777);
+        User retired = rescuer("retired", 19.0760, 72.8777);
+        User pinged = rescuer("pinged", 19.0760, 72.8777);
+        for (User user : List.of(moved, retired, pinged)) user.setLastLocationUpdate(loaded);
+        index.rebuild(Stream.of(moved, retired, pinged));
+
+        Instant started = Instant.now();
+        // Another node moved "moved" and made "retired" unavailable; this node then saw a ping from "pinged"
+        User movedElsewhere = rescuer("moved", 28.6139, 77.2090);
+        movedElsewhere.setLastLocationUpdate(started.minusSeconds(1));
+        index.moveIfPresent("pinged", 19.2000, 72.9500);
+        index.resync(List.of(movedElsewhere, pinged), started);
+
+        assertEquals(List.of("moved"), ids(index.findWithinRadius(28.6139, 77.2090, 1.0, null)));
+        assertEquals(List.of("pinged"), ids(index.findWithinRadius(19.2000, 72.9500, 1.0, null)));
+        assertEquals(2, index.size());
+        assertEquals(2, index.cellCount());
+    }
+
+    @Test
+    void dropsCellsOnceTheyAreEmpty() {
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        index.upsert(rescuer("r1", 19.0760, 72.8777));
+        index.moveIfPresent("r1", 28.6139, 77.2090);
+        assertEquals(1, index.cellCount());
+
+        index.remove("r1");
+        assertEquals(0, index.cellCount());
+    }
+
+    private static List<String> ids(List<RescuerLocationIndex.Match> matches) {
+        return matches.stream().map(m -> m.rescuer().userId()).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.navic.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void firesEveryTimerWithinOneTickOfItsDeadlineAcrossLevels() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 8, START);
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Up to ~11 hours out, which needs five levels of 8 one-second slots
+            long deadline = START + (long) (random.nextDouble() * 40_000_000L);
+            deadlines.put("t" + i, deadline);
+            wheel.schedule("t" + i, "v" + i, deadline);
+        }
+
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = START; !deadlines.keySet().equals(firedAt.keySet()); now += 250) {
+            for (TimingWheel.Expired<String, String> expired : wheel.advanceTo(now)) {
+                assertEquals("v" + expired.key().substring(1), expired.value());
+                firedAt.put(expired.key(), now);
+            }
+        }
+
+        for (Map.Entry<String, Long> entry : deadlines.entrySet()) {
+            long late = firedAt.get(entry.getKey()) - entry.getValue();
+            assertTrue(late >= 0 && late < TICK + 250, entry.getKey() + " fired " + late + " ms after its deadline");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledAndReplacedTimersDoNotFire() {
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.schedule("expire", 1, START + 5_000);
+        wheel.schedule("remind", 1, START + 120_000);
+        wheel.schedule("renotify", 1, START + 60_000);
+
+        assertTrue(wheel.cancel("expire"));
+        assertFalse(wheel.cancel("expire"));
+        wheel.schedule("renotify", 2, START + 90_000);
+
+        assertEquals(List.of(), wheel.advanceTo(START + 60_000));
+        assertEquals(START + 90_000, wheel.deadlineOf("renotify"));
+
+        List<TimingWheel.Expired<String, Integer>> fired = wheel.advanceTo(START + 91_000);
+        assertEquals(1, fired.size());
+        assertEquals("renotify", fired.get(0).key());
+        assertEquals(2, fired.get(0).value());
+        assertTrue(wheel.contains("remind"));
+        assertFalse(wheel.contains("renotify"));
+    }
+
+    @Test
+    void overdueTimersFireOnTheNextAdvance() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 8, START);
+        wheel.advanceTo(START + 10_000);
+
+        wheel.schedule("late", "x", START + 2_000);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 10_000).forEach(expired -> fired.add(expired.key()));
+        assertEquals(List.of("late"), fired);
+    }
+}
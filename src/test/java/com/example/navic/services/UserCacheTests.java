@@ -0,0 +1,68 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserCacheTests {
+
+    private static User user(String id, String fullName) {
+        User user = new User();
+        user.setId(id);
+        user.setFullName(fullName);
+        return user;
+    }
+
+    @Test
+    void loadsOnceUntilInvalidatedAndCountsHitsAndMisses() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        UserCache cache = new UserCache(null, meters, 100, 60, false);
+        AtomicInteger loads = new AtomicInteger();
+
+        User first = cache.get("u1", id -> { loads.incrementAndGet(); return user(id, "Asha"); });
+        assertSame(first, cache.get("u1", id -> { loads.incrementAndGet(); return user(id, "Asha"); }));
+        assertEquals(1, loads.get());
+
+        cache.invalidate("u1");
+        assertEquals("Ravi", cache.get("u1", id -> { loads.incrementAndGet(); return user(id, "Ravi"); }).getFullName());
+        assertEquals(2, loads.get());
+
+        assertEquals(1.0, meters.get("cache.gets").tag("cache", "navic.users").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meters.get("cache.gets").tag("cache", "navic.users").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void invalidateDuringALoadDropsWhatTheLoadRead() throws Exception {
+        UserCache cache = new UserCache(null, new SimpleMeterRegistry(), 100, 60, false);
+        AtomicReference<String> stored = new AtomicReference<>("before");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+
+        CompletableFuture<User> reader = CompletableFuture.supplyAsync(() -> cache.get("u1", id -> {
+            User snapshot = user(id, stored.get());
+            loading.countDown();
+            try {
+                written.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return snapshot;
+        }));
+
+        loading.await();
+        stored.set("after");
+        written.countDown();
+        cache.invalidate("u1");
+
+        assertEquals("before", reader.get().getFullName());
+        assertEquals("after", cache.get("u1", id -> user(id, stored.get())).getFullName());
+    }
+}
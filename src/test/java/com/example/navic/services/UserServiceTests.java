@@ -0,0 +1,54 @@
+package com.example.navic.services;
+
+import com.example.navic.models.User;
+import com.example.navic.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserServiceTests {
+
+    @Test
+    void rescuerRegisteredWithoutALocationIsDispatchableAfterTheirFirstPing() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId("new-user");
+            return user;
+        });
+        PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+        when(passwordHashingService.encode("secret")).thenReturn(CompletableFuture.completedFuture("hash"));
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        RescuerLocationIndex index = new RescuerLocationIndex(0.05, false);
+        index.rebuild(Stream.empty());
+
+        UserService userService = new UserService(1, false);
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "passwordHashingService", passwordHashingService);
+        ReflectionTestUtils.setField(userService, "jwtService", mock(JwtService.class));
+        ReflectionTestUtils.setField(userService, "rescuerLocationIndex", index);
+        ReflectionTestUtils.setField(userService, "locationUpdateBuffer",
+                new LocationUpdateBuffer(null, new UserCache(null, meters, 100, 60, false), meters));
+        ReflectionTestUtils.setField(userService, "dispatchRingsKm", new double[] {2, 5});
+
+        userService.register("asha", "secret").get();
+        assertTrue(userService.findNearestRescuers(19.0770, 72.8780, 5, Set.of()).isEmpty());
+
+        userService.updateLocation("new-user", 19.0760, 72.8777);
+
+        List<UserService.NearbyRescuer> found = userService.findNearestRescuers(19.0770, 72.8780, 5, Set.of());
+        assertEquals(List.of("new-user"), found.stream().map(nearby -> nearby.user().getId()).toList());
+    }
+}